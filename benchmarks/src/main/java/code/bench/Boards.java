@@ -0,0 +1,54 @@
+/**
+ *  @author Chris Turgeon
+ *  @version 1.0
+ */
+
+package code.bench;
+import code.driver.LifeEngine;
+import java.util.Random;
+
+public class Boards {
+
+  /**
+   *  This method fills a grid with random Cells. The same seed always
+   *  gives the same grid, so runs of a benchmark can be compared.
+   *  @param numRows - the number of rows in the grid
+   *  @param numCols - the number of columns in the grid
+   *  @param density - the chance of each Cell being alive
+   *  @param seed - the seed for the random number generator
+   *  @return a 2D array of ints holding 1s and 0s
+   */
+  public static int[][] randomGrid(int numRows, int numCols, double density, long seed) {
+    Random random = new Random(seed);
+    int[][] grid = new int[numRows][numCols];
+    for (int r = 0; r < numRows; r++) {
+      for (int c = 0; c < numCols; c++) {
+        grid[r][c] = (random.nextDouble() < density) ? 1 : 0;
+      }
+    }
+    return grid;
+  }
+
+  /**
+   *  This method builds an engine holding a random grid. Cells are set
+   *  one at a time so that no full int grid is needed for large boards.
+   *  @param engine - the name of the engine
+   *  @param numRows - the number of rows in the grid
+   *  @param numCols - the number of columns in the grid
+   *  @param density - the chance of each Cell being alive
+   *  @param seed - the seed for the random number generator
+   *  @return the engine with its grid filled in
+   */
+  public static LifeEngine randomEngine(String engine, int numRows, int numCols, double density, long seed) {
+    Random random = new Random(seed);
+    LifeEngine game = LifeEngine.create(engine, numRows, numCols);
+    for (int r = 0; r < numRows; r++) {
+      for (int c = 0; c < numCols; c++) {
+        if (random.nextDouble() < density) {
+          game.setCell(r, c, 1);
+        }
+      }
+    }
+    return game;
+  }
+}
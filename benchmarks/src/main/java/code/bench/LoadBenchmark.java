@@ -0,0 +1,74 @@
+/**
+ *  @author Chris Turgeon
+ *  @version 1.0
+ */
+
+package code.bench;
+import code.driver.LifeEngine;
+import code.io.GridReader;
+import java.io.*;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoadBenchmark {
+
+  @Param({ "64", "512", "2048" })
+  public int size;
+
+  private File input;
+
+  /**
+   *  Write a random grid in the "rows, cols" input format.
+   *  @param None
+   *  @return None
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    input = File.createTempFile("load", ".txt");
+    input.deleteOnExit();
+    int[][] grid = Boards.randomGrid(size, size, 0.35, 42);
+    BufferedWriter writer = new BufferedWriter(new FileWriter(input));
+    writer.write(size + ", " + size + "\n");
+    for (int r = 0; r < size; r++) {
+      for (int c = 0; c < size; c++) {
+        writer.write(grid[r][c] == 1 ? '1' : '0');
+        writer.write(c < size - 1 ? ", " : "\n");
+      }
+    }
+    writer.close();
+  }
+
+  /**
+   *  Load the file the way the Load Game menu item does.
+   *  @param None
+   *  @return the loaded engine
+   */
+  @Benchmark
+  public LifeEngine populate() throws IOException {
+    Scanner sc = new Scanner(input);
+    String rowCount = sc.next();
+    int numRows = Integer.parseInt(rowCount.substring(0, rowCount.length() - 1));
+    int numCols = Integer.parseInt(sc.next());
+    LifeEngine game = LifeEngine.create("standard", numRows, numCols);
+    game.populate(sc);
+    sc.close();
+    return game;
+  }
+
+  /**
+   *  Load the file through the streaming reader into a bit packed grid.
+   *  @param None
+   *  @return the loaded engine
+   */
+  @Benchmark
+  public LifeEngine read() throws IOException {
+    return GridReader.read(input.toPath(), "bitpacked");
+  }
+}
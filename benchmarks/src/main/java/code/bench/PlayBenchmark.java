@@ -0,0 +1,74 @@
+/**
+ *  @author Chris Turgeon
+ *  @version 1.0
+ */
+
+package code.bench;
+import code.driver.LifeEngine;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+// A 16384x16384 grid takes 1 GB as int[][] and about 4 GB on the
+// sparse engine, more than a default heap holds
+@Fork(value = 1, jvmArgsAppend = { "--add-modules=jdk.incubator.vector", "-Xmx8g" })
+public class PlayBenchmark {
+
+  @Param({ "standard", "doublebuffered", "halo", "vector", "parallel", "bitpacked", "sparse" })
+  public String engine;
+
+  @Param({ "64", "256", "1024", "4096", "16384" })
+  public int size;
+
+  @Param({ "0.05", "0.35" })
+  public double density;
+
+  private LifeEngine game;
+
+  /**
+   *  Build the board once per trial.
+   *  @param None
+   *  @return None
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    game = Boards.randomEngine(engine, size, size, density, 42);
+  }
+
+  /**
+   *  Step the board one generation. The cellUpdates counter is
+   *  reported next to the score as cell-updates per second.
+   *  @param counters - the per thread counters
+   *  @return None
+   */
+  @Benchmark
+  public void play(Counters counters) {
+    game.play(1);
+    counters.cellUpdates += (long) size * size;
+  }
+
+
+// ============================================================================
+
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class Counters {
+
+    public long cellUpdates;
+
+    /**
+     *  Clear the counter before every iteration.
+     *  @param None
+     *  @return None
+     */
+    @Setup(Level.Iteration)
+    public void reset() {
+      cellUpdates = 0;
+    }
+  }
+}
@@ -0,0 +1,83 @@
+/**
+ *  @author Chris Turgeon
+ *  @version 1.0
+ */
+
+package code.bench;
+import code.driver.LifeEngine;
+import code.io.TextExporter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrintBenchmark {
+
+  @Param({ "64", "512", "2048" })
+  public int size;
+
+  private LifeEngine game;
+  private int[][] grid;
+  private String location;
+  private long[] cells;
+  private TextExporter exporter;
+
+  /**
+   *  Build a random grid and a scratch directory to export into.
+   *  @param None
+   *  @return None
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    grid = Boards.randomGrid(size, size, 0.35, 42);
+    game = LifeEngine.create("standard", size, size);
+    game.replaceGrid(grid);
+    File directory = Files.createTempDirectory("print").toFile();
+    directory.deleteOnExit();
+    location = directory.getPath() + "/out";
+    cells = TextExporter.pack(game);
+    exporter = new TextExporter(size, size, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   *  Stop the exporter's threads.
+   *  @param None
+   *  @return None
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    exporter.close();
+  }
+
+  /**
+   *  Export one tick the way Save All used to.
+   *  @param None
+   *  @return None
+   */
+  @Benchmark
+  public void print() throws IOException {
+    game.print(grid, 0, location);
+  }
+
+  /**
+   *  Export a batch of 16 ticks the way Save All does, through the
+   *  parallel exporter.
+   *  @param None
+   *  @return None
+   */
+  @Benchmark
+  @OperationsPerInvocation(16)
+  public void export() throws Exception {
+    for (int tick = 0; tick < 16; tick++) {
+      exporter.export(tick, cells, location);
+    }
+    exporter.finish();
+  }
+}
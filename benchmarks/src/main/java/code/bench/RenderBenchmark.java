@@ -0,0 +1,63 @@
+/**
+ *  @author Chris Turgeon
+ *  @version 1.0
+ */
+
+package code.bench;
+import code.driver.GUI;
+import code.driver.LifeEngine;
+import java.awt.GraphicsEnvironment;
+import java.util.concurrent.TimeUnit;
+import javax.swing.SwingUtilities;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RenderBenchmark {
+
+  @Param({ "128", "1024", "4096" })
+  public int size;
+
+  private GUI gui;
+  private int[][][] grids;
+  private int tick;
+
+  /**
+   *  Open the GUI with a random grid and work out the next generation,
+   *  so each call has real changes to draw. This needs a display.
+   *  @param None
+   *  @return None
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    if (GraphicsEnvironment.isHeadless()) {
+      throw new IllegalStateException("RenderBenchmark needs a display");
+    }
+    LifeEngine game = Boards.randomEngine("bitpacked", size, size, 0.35, 42);
+    grids = new int[2][][];
+    grids[0] = game.getGrid();
+    game.play(1);
+    grids[1] = game.getGrid();
+    SwingUtilities.invokeAndWait(() -> {
+      gui = new GUI(size, size);
+      gui.createAndShowGUI();
+      gui.configureNewGrid(grids[0]);
+    });
+  }
+
+  /**
+   *  Show the next tick on the Event Dispatch Thread, alternating
+   *  between the two generations.
+   *  @param None
+   *  @return None
+   */
+  @Benchmark
+  public void updateAndShowGUI() throws Exception {
+    tick++;
+    SwingUtilities.invokeAndWait(() -> gui.updateAndShowGUI(grids[tick & 1], tick, true));
+  }
+}
@@ -0,0 +1,28 @@
+/**
+ *  @author Chris Turgeon
+ *  @version 1.0
+ */
+
+package code.driver;
+import java.lang.management.ManagementFactory;
+
+public class AllocationMeter {
+
+  private static final java.lang.management.ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+  /**
+   *  This method returns how many bytes the calling thread has allocated
+   *  since it started. Only differences between two calls are meaningful.
+   *  @param None
+   *  @return the bytes allocated by this thread, -1 if the JVM cannot tell
+   */
+  public static long threadAllocatedBytes() {
+    if (THREADS instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+      if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+      }
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,266 @@
+/**
+ *  @author Chris Turgeon
+ *  @version 1.0
+ */
+
+package code.driver;
+import code.io.*;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+
+// ============================================================================
+// ============================================================================
+
+
+public class BatchRunner {
+
+  private static final String USAGE =
+      "Usage: java code.driver.BatchRunner [options] <pattern file>\n" +
+      "  The pattern file is a text grid (.txt), a snapshot (.snap) or an .rle or .cells pattern.\n" +
+      "  -n, --generations N     the number of generations to run (default 1000)\n" +
+      "  -e, --engine NAME       the engine to run on (default doublebuffered), one of\n" +
+      "                          " + String.join(", ", LifeEngine.ENGINES) + "\n" +
+      "  -t, --threads N         the threads for engines that use them (default every processor)\n" +
+      "  -s, --snapshot-every N  write a snapshot every N generations (default 0, never)\n" +
+      "  -o, --out PREFIX        snapshots go to PREFIX + tick + .snap (default out)\n" +
+      "  -m, --margin N          dead cells put around an .rle or .cells pattern (default 16)\n";
+
+  private String patternFile;
+  private int generations = 1000;
+  private String engine = "doublebuffered";
+  private int threads = Runtime.getRuntime().availableProcessors();
+  private int snapshotInterval;
+  private String outFileName = "out";
+  private int margin = 16;
+
+  /**
+   *  Constructor for a batch run from command line arguments.
+   *  @param args - the options and pattern file, as described in USAGE
+   *  @exception IllegalArgumentException is thrown if the arguments are invalid
+   */
+  public BatchRunner(String[] args) {
+    for (int i = 0; i < args.length; i++) {
+      String arg = args[i];
+      if (!arg.startsWith("-")) {
+        if (patternFile != null) {
+          throw new IllegalArgumentException("Only one pattern file can be run, found " + patternFile + " and " + arg);
+        }
+        patternFile = arg;
+        continue;
+      }
+      if (arg.equals("-h") || arg.equals("--help")) {
+        System.out.print(USAGE);
+        System.exit(0);
+      }
+      if (i + 1 == args.length) {
+        throw new IllegalArgumentException(arg + " needs a value");
+      }
+      String value = args[++i];
+      switch (arg) {
+        case "-n": case "--generations":
+          generations = parseCount(arg, value, 1);
+          break;
+        case "-e": case "--engine":
+          engine = value;
+          break;
+        case "-t": case "--threads":
+          threads = parseCount(arg, value, 1);
+          break;
+        case "-s": case "--snapshot-every":
+          snapshotInterval = parseCount(arg, value, 0);
+          break;
+        case "-o": case "--out":
+          outFileName = value;
+          break;
+        case "-m": case "--margin":
+          margin = parseCount(arg, value, 0);
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown option " + arg);
+      }
+    }
+    if (patternFile == null) {
+      throw new IllegalArgumentException("No pattern file given");
+    }
+    if (!Arrays.asList(LifeEngine.ENGINES).contains(engine)) {
+      throw new IllegalArgumentException("Unknown engine " + engine);
+    }
+  }
+
+  /**
+   *  Load the pattern, run it and report how fast it ran.
+   *  @param None
+   *  @return None
+   *  @exception IOException is thrown if the pattern cannot be read or a snapshot written
+   */
+  public void run() throws IOException {
+    long loadStart = System.nanoTime();
+    int tick = 0;
+    LifeEngine loaded;
+    Path file = Paths.get(patternFile);
+    String name = file.getFileName().toString();
+    // Patterns load straight into hashlife, which pads them to the size
+    // it needs, and unbounded, which only stores chunks with life in them
+    boolean direct = engine.equals("hashlife") || engine.equals("unbounded");
+    String patternEngine = direct ? engine : "bitpacked";
+    if (name.endsWith(".snap")) {
+      Snapshot snapshot = Snapshot.load(file, "bitpacked");
+      loaded = snapshot.getGame();
+      tick = snapshot.getTick();
+    } else if (name.endsWith(".rle")) {
+      loaded = RleFormat.read(file, patternEngine, margin);
+    } else if (name.endsWith(".cells")) {
+      loaded = CellsFormat.read(file, patternEngine, margin);
+    } else {
+      loaded = GridReader.read(file, "bitpacked");
+    }
+    boolean onEngine = (loaded instanceof HashLifeGameOfLife || loaded instanceof UnboundedGameOfLife);
+    LifeEngine game = onEngine ? loaded : moveToEngine(loaded);
+    loaded = null;
+    int numRows = game.getNumRows();
+    int numCols = game.getNumCols();
+    double loadSeconds = (System.nanoTime() - loadStart) / 1e9;
+    System.out.printf("Loaded %s: %dx%d at tick %d on %s with %d threads in %.2f s%n",
+                      name, numRows, numCols, tick, engine, threads, loadSeconds);
+    UnboundedGameOfLife universe = (game instanceof UnboundedGameOfLife) ? (UnboundedGameOfLife) game : null;
+    if (universe != null && snapshotInterval > 0) {
+      System.err.printf("WARNING: snapshots only hold the %dx%d window at the origin, "
+                        + "Cells of the unbounded engine outside it are left out%n", numRows, numCols);
+    }
+
+    // Play up to each snapshot in one go, so engines that can skip
+    // ahead several generations at once get to
+    long playNanos = 0;
+    long snapshotNanos = 0;
+    double cellUpdates = 0;
+    int snapshots = 0;
+    int end = tick + generations;
+    while (tick < end) {
+      int steps = end - tick;
+      if (snapshotInterval > 0) {
+        steps = Math.min(steps, snapshotInterval - Math.floorMod(tick, snapshotInterval));
+      }
+      long start = System.nanoTime();
+      if (universe != null) {
+        // Its work is the live area, which changes as the pattern does
+        for (int i = 0; i < steps; i++) {
+          universe.play(1);
+          cellUpdates += universe.getLiveArea();
+        }
+      } else {
+        game.play(steps);
+        cellUpdates += (double) steps * numRows * numCols;
+      }
+      playNanos += System.nanoTime() - start;
+      tick += steps;
+      if (snapshotInterval > 0 && tick % snapshotInterval == 0) {
+        start = System.nanoTime();
+        Path location = Paths.get(outFileName + tick + ".snap");
+        Snapshot.save(location, game, tick);
+        snapshotNanos += System.nanoTime() - start;
+        snapshots++;
+        System.out.printf("Tick %d: wrote %s%n", tick, location);
+      }
+    }
+
+    double seconds = Math.max(1e-9, playNanos / 1e9);
+    System.out.printf("Ran %d generations in %.3f s: %.1f generations/s, %.4g cell-updates/s%s%n",
+                      generations, seconds, generations / seconds, cellUpdates / seconds,
+                      (universe != null) ? " over the live area" : "");
+    if (universe != null) {
+      System.out.printf("Live area: %d chunks of 64x64 Cells, %d live Cells%n",
+                        universe.getChunkCount(), universe.getPopulation());
+    }
+    if (snapshots > 0) {
+      System.out.printf("Wrote %d snapshots in %.3f s%n", snapshots, snapshotNanos / 1e9);
+    }
+    System.out.printf("Peak heap: %.1f MB%n", peakHeapBytes() / 1e6);
+  }
+
+  /**
+   *  This method moves a loaded grid onto the engine being run, a row
+   *  at a time, so that the engine gets the thread count asked for.
+   *  @param loaded - the engine the pattern was read into
+   *  @return the engine to run
+   */
+  private LifeEngine moveToEngine(LifeEngine loaded) {
+    int numRows = loaded.getNumRows();
+    LifeEngine game = LifeEngine.create(engine, numRows, loaded.getNumCols(), threads);
+    long[] row = new long[(loaded.getNumCols() + 63) >>> 6];
+    for (int r = 0; r < numRows; r++) {
+      loaded.getRow(r, row);
+      game.setRow(r, row);
+    }
+    return game;
+  }
+
+  /**
+   *  @param None
+   *  @return the most heap the JVM has used, summed over its heap pools
+   */
+  private static long peakHeapBytes() {
+    long peak = 0;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+        peak += pool.getPeakUsage().getUsed();
+      }
+    }
+    return peak;
+  }
+
+  /**
+   *  @param option - the option being parsed, for errors
+   *  @param value - the text given for it
+   *  @param min - the smallest allowed value
+   *  @return the value as an int
+   *  @exception IllegalArgumentException is thrown if value is not an int of at least min
+   */
+  private static int parseCount(String option, String value, int min) {
+    try {
+      int count = Integer.parseInt(value);
+      if (count >= min) {
+        return count;
+      }
+    } catch(NumberFormatException e) {
+      // Reported below
+    }
+    throw new IllegalArgumentException(option + " must be a whole number of at least " + min + ", not " + value);
+  }
+
+
+// ============================================================================
+
+
+  /**
+   *  Batch Runner Main Method. It never touches AWT or Swing, so it runs
+   *  on servers with no display.
+   */
+  public static void main(String[] args) {
+    System.setProperty("java.awt.headless", "true");
+    BatchRunner runner;
+    try {
+      runner = new BatchRunner(args);
+    } catch(IllegalArgumentException e) {
+      System.err.println("ERROR: " + e.getMessage());
+      System.err.print(USAGE);
+      System.exit(2);
+      return;
+    }
+    try {
+      runner.run();
+    } catch(NoSuchFileException e) {
+      System.err.println("ERROR: " + e.getMessage() + " was not found");
+      System.exit(1);
+    } catch(IOException | IllegalArgumentException e) {
+      System.err.println("ERROR: " + e.getMessage());
+      System.exit(1);
+    }
+  }
+}
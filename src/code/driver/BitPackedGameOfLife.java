@@ -0,0 +1,243 @@
+/**
+ *  @author Chris Turgeon
+ *  @version 1.0
+ */
+
+package code.driver;
+
+public class BitPackedGameOfLife extends LifeEngine {
+
+  private static final int WORD_BITS = 64;
+
+  private long[][] cells;
+  private int numWords;
+  private long lastWordMask;
+
+  // Copies of the original rows around the row being written, so that
+  // a generation can be computed in place without a second grid
+  private RowBuffer up, mid, down, first;
+
+  /**
+   *  Construct a grid which stores 64 Cells in every long. Column c
+   *  of a row lives in bit (c % 64) of word (c / 64).
+   *  @param numRows - the number of rows in the grid
+   *  @param numCols - the number of columns in the grid
+   */
+  public BitPackedGameOfLife(int numRows, int numCols) {
+    super(numRows, numCols);
+    this.numWords = (numCols + WORD_BITS - 1) / WORD_BITS;
+    this.cells = new long[numRows][numWords];
+    int tailBits = numCols % WORD_BITS;
+    this.lastWordMask = (tailBits == 0) ? -1L : (1L << tailBits) - 1;
+    this.up = new RowBuffer(numWords);
+    this.mid = new RowBuffer(numWords);
+    this.down = new RowBuffer(numWords);
+    this.first = new RowBuffer(numWords);
+  }
+
+  /**
+   *  Accessor method for the state of a single Cell.
+   *  @param r - the row location
+   *  @param c - the column location
+   *  @return 1 if the Cell is alive, 0 if dead
+   */
+  public int getCell(int r, int c) {
+    return (int) (cells[r][c >>> 6] >>> c) & 1;
+  }
+
+  /**
+   *  Set the state of a single Cell.
+   *  @param r - the row location
+   *  @param c - the column location
+   *  @param state - 1 to make the Cell alive, 0 to kill it
+   *  @return None
+   */
+  public void setCell(int r, int c, int state) {
+    if (state == 1) {
+      cells[r][c >>> 6] |= (1L << c);
+    } else {
+      cells[r][c >>> 6] &= ~(1L << c);
+    }
+  }
+
+  /**
+   *  Copy a row of Cells out 64 to a long, straight from the grid.
+   *  @param r - the row to copy
+   *  @param bits - at least (numCols + 63) / 64 words to copy it into
+   *  @return None
+   */
+  public void getRow(int r, long[] bits) {
+    System.arraycopy(cells[r], 0, bits, 0, numWords);
+  }
+
+  /**
+   *  Set a whole row of Cells from 64 Cells to a long, straight into
+   *  the grid.
+   *  @param r - the row to set
+   *  @param bits - at least (numCols + 63) / 64 words holding the row
+   *  @return None
+   */
+  public void setRow(int r, long[] bits) {
+    System.arraycopy(bits, 0, cells[r], 0, numWords);
+    if (numWords > 0) {
+      cells[r][numWords - 1] &= lastWordMask;
+    }
+  }
+
+  /**
+   *  This method runs the game for a number of generations. Every
+   *  word of a row is updated at once by adding up the eight
+   *  neighbouring bit planes with bitwise adders.
+   *  @param stepCount - the number of steps to run the game for
+   *  @return None
+   */
+  public void play(int stepCount) {
+    for (int i = 0; i < stepCount; i++) {
+      boolean record = trackChanges && i == stepCount - 1;
+      if (record) {
+        clearChanges();
+      }
+      first.load(cells[0]);
+      up.load(cells[numRows - 1]);
+      mid.load(cells[0]);
+      for (int r = 0; r < numRows - 1; r++) {
+        down.load(cells[r + 1]);
+        nextRow(up, mid, down, cells[r]);
+        if (record) {
+          recordRowChanges(r, mid.plain, cells[r]);
+        }
+
+        // Slide the window of original rows down by one
+        RowBuffer temp = up;
+        up = mid;
+        mid = down;
+        down = temp;
+      }
+      nextRow(up, mid, first, cells[numRows - 1]); // Row 0 was already overwritten
+      if (record) {
+        recordRowChanges(numRows - 1, mid.plain, cells[numRows - 1]);
+      }
+    }
+  }
+
+  /**
+   *  This method records the Cells of a row which differ between its
+   *  old and new words.
+   *  @param r - the row location
+   *  @param before - the words of the row last generation
+   *  @param after - the words of the row this generation
+   *  @return None
+   */
+  private void recordRowChanges(int r, long[] before, long[] after) {
+    for (int k = 0; k < numWords; k++) {
+      long flipped = before[k] ^ after[k];
+      while (flipped != 0) {
+        recordChange(r * numCols + (k << 6) + Long.numberOfTrailingZeros(flipped));
+        flipped &= flipped - 1;
+      }
+    }
+  }
+
+  /**
+   *  This method computes the next state of one row from the original
+   *  row above it, the row itself and the row below it.
+   *  @param above - the row above
+   *  @param row - the row being updated
+   *  @param below - the row below
+   *  @param out - the words to write the new states into
+   *  @return None
+   */
+  private void nextRow(RowBuffer above, RowBuffer row, RowBuffer below, long[] out) {
+    for (int k = 0; k < numWords; k++) {
+      out[k] = nextWord(above.west[k], above.plain[k], above.east[k],
+                        row.west[k], row.plain[k], row.east[k],
+                        below.west[k], below.plain[k], below.east[k]);
+    }
+    out[numWords - 1] &= lastWordMask;
+  }
+
+  /**
+   *  This method computes the next state of 64 Cells at once. Each
+   *  argument holds, for every Cell, the state of one of its neighbors
+   *  in the same bit position.
+   *  @param aw - the neighbors above and to the west
+   *  @param an - the neighbors above
+   *  @param ae - the neighbors above and to the east
+   *  @param w - the neighbors to the west
+   *  @param alive - the Cells themselves
+   *  @param e - the neighbors to the east
+   *  @param bw - the neighbors below and to the west
+   *  @param bn - the neighbors below
+   *  @param be - the neighbors below and to the east
+   *  @return the next states of the 64 Cells
+   */
+  static long nextWord(long aw, long an, long ae, long w, long alive, long e, long bw, long bn, long be) {
+    // Neighbours in the row above, as a 2 bit count
+    long ax = aw ^ an;
+    long top0 = ax ^ ae;
+    long top1 = (aw & an) | (ax & ae);
+
+    // Neighbours to the left and right, as a 2 bit count
+    long mid0 = w ^ e;
+    long mid1 = w & e;
+
+    // Neighbours in the row below, as a 2 bit count
+    long bx = bw ^ bn;
+    long bot0 = bx ^ be;
+    long bot1 = (bw & bn) | (bx & be);
+
+    // Add the three counts. sum0 and sum1 are the low two bits of
+    // the total and atLeast4 is set when the total is 4 or more.
+    long x0 = top0 ^ mid0;
+    long sum0 = x0 ^ bot0;
+    long carry = (top0 & mid0) | (x0 & bot0);
+    long x1 = top1 ^ mid1;
+    long y1 = bot1 ^ carry;
+    long sum1 = x1 ^ y1;
+    long atLeast4 = (top1 & mid1) | (bot1 & carry) | (x1 & y1);
+
+    // Alive next tick with exactly 3 neighbours, or 2 if already alive
+    return ~atLeast4 & sum1 & (sum0 | alive);
+  }
+
+
+// ============================================================================
+
+
+  class RowBuffer {
+
+    long[] plain;
+    long[] west;
+    long[] east;
+
+    /**
+     *  Constructor for a copy of one row and its shifted neighbours.
+     *  @param numWords - the number of words in a row
+     */
+    RowBuffer(int numWords) {
+      this.plain = new long[numWords];
+      this.west = new long[numWords];
+      this.east = new long[numWords];
+    }
+
+    /**
+     *  Copy a row and build the words holding each Cell's west and
+     *  east neighbour, wrapping around the edges of the grid.
+     *  @param source - the words of the row to copy
+     *  @return None
+     */
+    void load(long[] source) {
+      int last = numWords - 1;
+      System.arraycopy(source, 0, plain, 0, numWords);
+      long lastCell = (plain[(numCols - 1) >>> 6] >>> (numCols - 1)) & 1;
+      long firstCell = plain[0] & 1;
+      for (int k = 0; k < numWords; k++) {
+        long before = (k == 0) ? lastCell : plain[k - 1] >>> 63;
+        long after = (k == last) ? 0 : plain[k + 1] << 63;
+        west[k] = (plain[k] << 1) | before;
+        east[k] = (plain[k] >>> 1) | after;
+      }
+      east[last] |= firstCell << ((numCols - 1) & 63);
+    }
+  }
+}
@@ -4,6 +4,7 @@
  */
 
 package code.driver;
+import code.io.*;
 import code.tools.*;
 import java.io.*;
 import java.util.*;
@@ -13,6 +14,8 @@ import java.awt.*;
 import java.awt.event.*;
 import javax.swing.*;
 import java.nio.file.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.locks.LockSupport;
 
 
 // ============================================================================
@@ -21,20 +24,56 @@ import java.nio.file.*;
 
 public class GUI {
 
-  private GameOfLife game;
-  private ArrayList<ArrayList<CellPanel>> grid;
-  private ArrayList<int[][]> prevGrids;
+  private LifeEngine game;
+  private TickHistory history;
   private int rowCount;
   private int colCount;
 
   private MainFrame frame;
-  private JPanel cellPanel;
+  private BoardCanvas canvas;
   private StatisticsPanel statsPanel;
+  private JProgressBar progressBar;
+  private JButton cancelButton;
+  private TickControl tickControl;
+  private JSlider scrubber;
   private Color currentColor;
 
   private String outFileName = "out";
   private String outDirectory = ".";
+  private String engineName = "doublebuffered";
   private static final String[] GUI_COLORS = { "Green", "Red", "Blue", "Orange", "Yellow" };
+  private static final int SEEK_CHECKPOINT_INTERVAL = 1024;
+  private static final int FRAME_MILLIS = 16;
+  private static final long FRAME_NANOS = FRAME_MILLIS * 1000000L;
+  private static final String CONFIG_SNAPSHOT = "_CONFIG_.snap";
+  private static final int PATTERN_MARGIN = 16;
+  private static final String PICK_ANOTHER_ENGINE = "Pick another engine, such as bitpacked, in Configuration to load it.";
+  private static final int MAX_ANIMATION_FRAMES = 500;
+  private static final int ANIMATION_SIZE = 600;
+  private static final String[] TICK_RATES = { "1", "2", "5", "10", "30", "60", "120", "Max" };
+
+  // The ticks per second Play aims for, 0 to run as fast as possible
+  private volatile int ticksPerSecond = 10;
+
+  // What was shown since the rates in the stats panel were last worked out
+  private long rateStart;
+  private int rateStartTick;
+  private int framesShown;
+
+  // The recorded run being replayed, or null when the game is being
+  // simulated. While replaying, ticks come from the archive and the
+  // game stays on the run's first tick.
+  private RunArchive replay;
+
+  // The tick the game and history are on, or the tick of the replayed
+  // run on show. A task's last generation can still be on its way to the
+  // display after the task ends, so this is set as soon as the task ends
+  // rather than when its tick is shown.
+  private volatile int gameTick;
+
+  // Runs the game off the Event Dispatch Thread. While it is running a
+  // task, game and history belong to it and must not be touched here.
+  private SimulationService simulation = new SimulationService();
 
   /**
    *  The constructor for the Game Of Life graphical interface.
@@ -45,21 +84,17 @@ public class GUI {
     this.frame = new MainFrame();
     this.frame.addWindowListener(new WindowAdapter() {
       public void windowClosing(WindowEvent windowEvent) {
+        // Wait for the task to finish, since writeConfig reads the game
+        // and history it was working on
+        simulation.shutdown();
         writeConfig();
       }
     });
     this.rowCount = rowCount;
     this.colCount = colCount;
-    this.prevGrids = new ArrayList<int[][]>();
+    this.history = newHistory(rowCount, colCount);
     this.currentColor = Color.GREEN;
-    this.grid = new ArrayList<ArrayList<CellPanel>>();
-    for (int r = 0; r < rowCount; r++) {
-      this.grid.add(new ArrayList<CellPanel>());
-      for (int c = 0; c < colCount; c++) {
-        CellPanel cell = new CellPanel(Color.WHITE);
-        this.grid.get(r).add(cell);
-      }
-    }
+    this.canvas = new BoardCanvas(rowCount, colCount, this.currentColor);
   }
 
 
@@ -80,15 +115,6 @@ public class GUI {
 
     JPanel containerPanel = new JPanel();
     containerPanel.setLayout(new BorderLayout());
-    this.cellPanel = new JPanel();
-    cellPanel.setLayout(new GridLayout(this.rowCount, this.colCount));
-
-    // Add CellPanels to the JPanel
-    for (int r = 0; r < rowCount; r++) {
-      for (int c = 0; c < colCount; c++) {
-        cellPanel.add(this.grid.get(r).get(c));
-      }
-    }
 
     // Create a JComboBox to take in user selected colors
     JComboBox<String> colorSelector = new JComboBox<String>(GUI_COLORS);
@@ -107,7 +133,7 @@ public class GUI {
       }
     });
 
-    TickControl tickControl = new TickControl(Color.RED, Color.GREEN);
+    this.tickControl = new TickControl(Color.RED, Color.GREEN);
     GameMenuBar menu = new GameMenuBar();
     menu.addObject(colorSelector);
 
@@ -117,10 +143,43 @@ public class GUI {
     bottomPanel.add(statsPanel);
     bottomPanel.add(tickControl);
 
+    // Show how far a running simulation has got and let the user stop it
+    this.progressBar = new JProgressBar(0, 100);
+    this.progressBar.setStringPainted(true);
+    this.progressBar.setVisible(false);
+    this.cancelButton = new JButton("Cancel");
+    this.cancelButton.setVisible(false);
+    this.cancelButton.addActionListener(new ActionListener() {
+      public void actionPerformed(ActionEvent e) {
+        simulation.cancel();
+      }
+    });
+    bottomPanel.add(progressBar);
+    bottomPanel.add(cancelButton);
+
+    // Drag through the ticks of a replayed run
+    this.scrubber = new JSlider(0, 0, 0);
+    this.scrubber.setVisible(false);
+    this.scrubber.addChangeListener(event -> {
+      int tick = this.scrubber.getValue();
+      if (this.replay != null && tick != this.gameTick && !this.simulation.isRunning()) {
+        showReplayTick(tick);
+      }
+    });
+    bottomPanel.add(scrubber);
+
+    // Pick up the generations the simulation finishes, about 60 times a second
+    javax.swing.Timer frameTimer = new javax.swing.Timer(FRAME_MILLIS, new ActionListener() {
+      public void actionPerformed(ActionEvent e) {
+        showGenerations();
+      }
+    });
+    frameTimer.start();
+
     // Add to frame and display
-    cellPanel.setPreferredSize(new Dimension(600, 600));
+    canvas.setPreferredSize(new Dimension(600, 600));
     containerPanel.add(menu, BorderLayout.NORTH);
-    containerPanel.add(cellPanel, BorderLayout.CENTER);
+    containerPanel.add(canvas, BorderLayout.CENTER);
     containerPanel.add(bottomPanel, BorderLayout.SOUTH);
     this.frame.getContentPane().add(containerPanel);
     this.frame.pack();
@@ -135,13 +194,7 @@ public class GUI {
    */
   public void updateColor(Color color) {
     this.currentColor = color;
-    for (int r = 0; r < rowCount; r++) {
-      for (int c = 0; c < colCount; c++) {
-        if (this.game.getGrid()[r][c] == 1) {
-          this.grid.get(r).get(c).birth(color);
-        }
-      }
-    }
+    this.canvas.setColor(color);
   }
 
 
@@ -156,32 +209,25 @@ public class GUI {
   public void updateAndShowGUI(int[][] newGrid, int newTick, boolean fade) {
     if (newTick == statsPanel.getTick() && newTick > 0) return;
     // Update the new colors of the cells and keep track of dead/alive count
-    int numAlive = 0;
-    int numDead = 0;
-    for (int r = 0; r < rowCount; r++) {
-      for (int c = 0; c < colCount; c++) {
-        int newState = newGrid[r][c];
-        CellPanel cell = this.grid.get(r).get(c);
-        boolean aliveAgain = (newState == 1) && (cell.isAlive());
-        if (aliveAgain && fade) {
-          cell.darken();
-          numAlive++;
-        } else if (aliveAgain && !fade) {
-          cell.birth(this.currentColor);
-          numAlive++;
-        } else if (newState == 1 && !cell.isAlive()) {
-          cell.birth(this.currentColor);
-          numAlive++;
-        } else {
-          cell.kill();
-          numDead++;
-        }
-      }
-    }
+    int numAlive = this.canvas.update(newGrid, fade);
+    int numDead = rowCount * colCount - numAlive;
     // Update the current grid with a new one and update stats
     this.statsPanel.update(numAlive, numDead, newTick);
-    this.frame.revalidate();
-    this.frame.repaint();
+  }
+
+
+  /**
+   *  This method updates the GUI display for the next tick
+   *  from only the cells which flipped, fading the cells that
+   *  stay alive. Only the part of the board around them is redrawn.
+   *  @param changes - the indices r * colCount + c of the flipped cells
+   *  @param newTick - the tick corresponding to the changes
+   *  @return None
+   */
+  public void updateAndShowChanges(int[] changes, int newTick) {
+    int numAlive = this.canvas.applyChanges(changes);
+    int numDead = rowCount * colCount - numAlive;
+    this.statsPanel.update(numAlive, numDead, newTick);
   }
 
 
@@ -193,111 +239,111 @@ public class GUI {
    *  @return None
    */
   public void configureNewGrid(int[][] newGrid) {
-    // Reset current cell panel
-    this.cellPanel.removeAll();
-    cellPanel.setLayout(new GridLayout(this.rowCount, this.colCount));
-
-    // Update the new colors of the cells and keep track of dead/alive count
-    int numAlive = 0;
-    int numDead = 0;
-    this.grid = new ArrayList<ArrayList<CellPanel>>();
-    for (int r = 0; r < rowCount; r++) {
-      this.grid.add(new ArrayList<CellPanel>());
-      for (int c = 0; c < colCount; c++) {
-        if (newGrid[r][c] == 1) {
-          CellPanel cell = new CellPanel(this.currentColor);
-          this.grid.get(r).add(cell);
-          this.cellPanel.add(cell);
-          numAlive++;
-        } else {
-          CellPanel cell = new CellPanel(Color.WHITE);
-          this.grid.get(r).add(cell);
-          this.cellPanel.add(cell);
-          numDead++;
-        }
-      }
-    }
+    // Redraw the board and keep track of dead/alive count
+    int numAlive = this.canvas.setGrid(newGrid);
+    int numDead = rowCount * colCount - numAlive;
     this.statsPanel.update(numAlive, numDead, 0);
+    this.gameTick = 0;
     this.frame.revalidate();
     this.frame.repaint();
   }
 
 
   /**
-   *  This method updates the GUI with the next tick of
-   *  the game. It also stores the previous grid.
-   *  @param display - a boolean value telling the GUI to update or not
+   *  This method makes a freshly loaded engine the game, starting a new
+   *  history at tick 0 and drawing its grid.
+   *  @param loaded - the engine holding the new grid
+   *  @return None
+   */
+  private void startGame(LifeEngine loaded) {
+    closeReplay();
+    this.game = loaded;
+    this.game.setChangeTracking(true);
+    this.rowCount = loaded.getNumRows();
+    this.colCount = loaded.getNumCols();
+    this.history = newHistory(rowCount, colCount);
+    this.statsPanel.update(0, 0, 0);
+    configureNewGrid(this.game.getGrid());
+  }
+
+
+  /**
+   *  This method moves the game on by one tick on the simulation
+   *  thread. It also stores the previous grid. Clicks which come
+   *  in while the simulation is busy are ignored.
+   *  @param None
    *  @return None
    */
-  public void nextTick(boolean display) {
+  public void nextTick() {
     if (this.rowCount == 2) {
       JOptionPane.showMessageDialog(null, "You must load in a new game before stepping through it");
       return;
     }
-    int nextTick = this.statsPanel.getTick() + 1;
-    int[][] copyGrid = new int[rowCount][colCount];
-    int[][] gameGrid = this.game.getGrid();
-    for (int r = 0; r < rowCount; r++) {
-      for (int c = 0; c < colCount; c++) {
-        copyGrid[r][c] = gameGrid[r][c];
-      }
-    }
-    this.game.replaceGrid(copyGrid); // Load the newest grid into the GameOfLife object
-    this.prevGrids.add(copyGrid);    // Save the previous grid in prevGrids
-    this.game.play(1);               // Update the grid for one round
-    if (display) {
-      this.updateAndShowGUI(this.game.getGrid(), nextTick, true);
-    }
+    if (this.simulation.isRunning()) return;
+    processAndLoadTick(this.gameTick + 1);
   }
 
 
   /**
-   *  This method updates the GUI when the user goes back a tick.
-   *  It also deletes previous grids as it goes backwards.
-   *  @param display - a boolean value telling the GUI to update or not
+   *  This method moves the game back by one tick on the simulation
+   *  thread. It also deletes previous grids as it goes backwards.
+   *  @param None
    *  @return None
    */
-  public void previousTick(boolean display) {
-    int prevTick = this.statsPanel.getTick() - 1;
-    int lastGrid = this.prevGrids.size() - 1;
-    int[][] prevGrid = this.prevGrids.get(lastGrid);
-    this.game.replaceGrid(prevGrid);
-    this.prevGrids.remove(lastGrid);
-    for (int r = 0; r < rowCount; r++) {
-      for (int c = 0; c < colCount; c++) {
-        this.grid.get(r).get(c).resetOpacity();
-      }
-    }
-    if (display) {
-      this.updateAndShowGUI(prevGrid, prevTick, false);
-    }
+  public void previousTick() {
+    if (this.simulation.isRunning()) return;
+    processAndLoadTick(this.gameTick - 1);
   }
 
 
   /**
    *  This method checks to see if any of the files in
    *  directory with file name between tick start and end exist.
+   *  The directory is listed once rather than asking about every
+   *  tick's file in turn.
    *  @param directory - the location where output files will be placed
    *  @param start - the starting tick appended to the filename
    *  @param end - the ending tick appended to the filename
    *  @return true if files will be overwritten, false if not
    */
   public boolean overwriteFiles(String directory, int start, int end) {
-    String fileName;
-    File file;
-    for (int i = start; i <= end; i++) {
-      fileName = directory + "/" + outFileName + Integer.toString(i) + ".txt";
-      file = new File(fileName);
-      if (file.exists()) {
-        return true;
+    String prefix = outFileName;
+    DirectoryStream.Filter<Path> filter = path -> {
+      String name = path.getFileName().toString();
+      return name.startsWith(prefix) && name.endsWith(".txt");
+    };
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(Paths.get(directory), filter)) {
+      for (Path file : files) {
+        String name = file.getFileName().toString();
+        String tick = name.substring(prefix.length(), name.length() - 4);
+        if (tick.isEmpty() || tick.length() > 10 || !tick.chars().allMatch(Character::isDigit)) {
+          continue;
+        }
+        long i = Long.parseLong(tick);
+        if (i >= start && i <= end && tick.equals(Long.toString(i))) {
+          return true;
+        }
       }
+    } catch(IOException | DirectoryIteratorException e) {
+      return false;
     }
     return false;
   }
 
 
   /**
-   *  This method takes in a tick and jumps to that tick.
+   *  @param None
+   *  @return the file Save All writes the run to
+   */
+  private Path runArchiveFile() {
+    return Paths.get(this.outDirectory, this.outFileName + ".liferun");
+  }
+
+
+  /**
+   *  This method takes in a tick and jumps to that tick on the
+   *  simulation thread, showing its progress and letting the
+   *  user cancel it.
    *  @param tick - the tick to go to
    *  @return None
    */
@@ -306,22 +352,594 @@ public class GUI {
       JOptionPane.showMessageDialog(null, "You must first load in a game");
       return;
     }
-    int currentTick = this.statsPanel.getTick();
-    if (tick > currentTick) {
-      while (this.statsPanel.getTick() < tick - 1) {
-        nextTick(false);
-        this.statsPanel.updateTick(true);
+    if (isBusy()) return;
+    int currentTick = this.gameTick;
+    if (tick == currentTick) return;
+    if (this.replay != null) {
+      if (tick >= this.replay.size()) {
+        JOptionPane.showMessageDialog(null, "The run being replayed ends at tick " + (this.replay.size() - 1));
+      } else {
+        showReplayTick(tick);
+      }
+      return;
+    }
+    runSimulation(service -> seek(service, currentTick, tick));
+  }
+
+
+  /**
+   *  This method opens a run archive and starts replaying it from its
+   *  first tick. The archive is read through a map of the file, so no
+   *  more than the tick on show is ever held in memory.
+   *  @param file - the archive Save All wrote
+   *  @return None
+   *  @exception IOException is thrown if the archive cannot be read
+   */
+  public void openRun(Path file) throws IOException {
+    RunArchive archive = RunArchive.map(file);
+    try {
+      if (archive.size() == 0) {
+        throw new IOException(file.getFileName() + " holds no ticks");
       }
-      nextTick(true);
-    } else if (tick < currentTick) {
-      while (this.statsPanel.getTick() > tick + 1) {
-        previousTick(false);
-        this.statsPanel.updateTick(false);
+      if (archive.getNumRows() < 3 || archive.getNumCols() < 3) {
+        throw new IOException("Grid dimensions within file are invalid. Width and height must be > 3.");
       }
-      previousTick(true);
-    } else {
+      LifeEngine first = LifeEngine.create(this.engineName, archive.getNumRows(), archive.getNumCols());
+      first.replaceGrid(archive.get(0));
+      startGame(first);
+    } catch(IOException | RuntimeException e) {
+      archive.close();
+      throw e;
+    }
+    this.replay = archive;
+    this.scrubber.setMaximum(archive.size() - 1);
+    this.scrubber.setValue(0);
+    this.scrubber.setVisible(true);
+    this.frame.revalidate();
+  }
+
+
+  /**
+   *  This method stops replaying a run, if one is being replayed.
+   *  @param None
+   *  @return None
+   */
+  private void closeReplay() {
+    if (this.replay == null) return;
+    try {
+      this.replay.close();
+    } catch(IOException e) {
+      e.printStackTrace();
+    }
+    this.replay = null;
+    this.scrubber.setVisible(false);
+    this.frame.revalidate();
+  }
+
+
+  /**
+   *  This method shows a tick of the run being replayed. The next tick
+   *  is drawn from only the cells which flipped, and any other is read
+   *  from the keyframe before it, so every tick takes about as long to
+   *  reach however far away it is.
+   *  @param tick - a tick of the run
+   *  @return None
+   */
+  private void showReplayTick(int tick) {
+    // Show whatever a finished task left for the display first, so the
+    // changes are applied to the tick they follow
+    showGenerations();
+    int currentTick = this.gameTick;
+    try {
+      int[] changes = (tick == currentTick + 1) ? this.replay.getChanges(tick) : null;
+      if (changes != null) {
+        this.updateAndShowChanges(changes, tick);
+      } else if (tick < currentTick) {
+        this.canvas.resetOpacity();
+        this.updateAndShowGUI(this.replay.get(tick), tick, false);
+      } else {
+        this.updateAndShowGUI(this.replay.get(tick), tick, true);
+      }
+      this.gameTick = tick;
+    } catch(IOException e) {
+      e.printStackTrace();
+      JOptionPane.showMessageDialog(null, "ERROR: " + e.getMessage());
+    }
+    this.scrubber.setValue(tick);
+  }
+
+
+  /**
+   *  This method plays the run being replayed forward at ticksPerSecond,
+   *  or as fast as it can, until it is cancelled or the run ends. The
+   *  cells are carried from tick to tick by the recorded changes, and a
+   *  grid is only built once a frame to publish. Only call it from a
+   *  simulation task.
+   *  @param service - the service running the task
+   *  @param currentTick - the tick on show
+   *  @return None
+   *  @exception IOException is thrown if the archive cannot be read
+   */
+  private void replayRun(SimulationService service, int currentTick) throws IOException {
+    RunArchive archive = this.replay;
+    int tick = currentTick;
+    long[] cells = archive.getCells(tick);
+    int[] changes = null;
+    int rate = -1;
+    long rateStart = 0;
+    long ticksAtRate = 0;
+    long lastPublished = System.nanoTime();
+    while (!service.isCancelled() && tick + 1 < archive.size()) {
+      if (rate != this.ticksPerSecond) {
+        rate = this.ticksPerSecond;
+        rateStart = System.nanoTime();
+        ticksAtRate = 0;
+      }
+      if (rate > 0) {
+        long wait = rateStart + ticksAtRate * 1000000000L / rate - System.nanoTime();
+        if (wait > 0) {
+          LockSupport.parkNanos(Math.min(wait, FRAME_NANOS));
+          continue;
+        }
+      }
+      tick++;
+      ticksAtRate++;
+      changes = archive.getChanges(tick);
+      if (changes == null) {
+        cells = archive.getCells(tick);
+      } else {
+        for (int cell : changes) {
+          cells[cell >>> 6] ^= (1L << cell);
+        }
+      }
+      long now = System.nanoTime();
+      if (now - lastPublished >= FRAME_NANOS && service.wantsGeneration()) {
+        service.publish(tick, archive.toGrid(cells), changes);
+        lastPublished = now;
+      }
+    }
+    service.publishLast(tick, archive.toGrid(cells), changes);
+  }
+
+
+  /**
+   *  This method moves the game from one tick to another and publishes
+   *  the grid it ends on. Going forward runs the engine straight to the
+   *  tick and adds O(log n) checkpoints to the history, closest together
+   *  near the tick: the last one is just before it and each earlier gap
+   *  is twice the one after it, starting from SEEK_CHECKPOINT_INTERVAL.
+   *  Stepping back a little from the tick stays cheap while a long seek
+   *  builds only a few grids. Hashlife jumps each gap in one go, other
+   *  engines play it SEEK_CHECKPOINT_INTERVAL ticks at a time so the seek
+   *  can be cancelled. Going back rebuilds the tick from the checkpoint
+   *  before it and drops everything after it from the history. Only call
+   *  it from a simulation task.
+   *  @param service - the service running the task
+   *  @param currentTick - the tick the game is on
+   *  @param tick - the tick to go to
+   *  @return the tick reached, which is earlier than tick if cancelled
+   */
+  private int seek(SimulationService service, int currentTick, int tick) {
+    if (tick < currentTick) {
+      int[][] tickGrid = this.history.get(tick);
+      this.game.replaceGrid(tickGrid);
+      this.history.truncate(tick);
+      service.publishLast(tick, tickGrid, null);
+      return tick;
+    }
+    this.history.append(this.game.getGrid());
+    int last = tick - 1;
+    int checkpoint = currentTick;
+    while (checkpoint < last && !service.isCancelled()) {
+      // The next checkpoint is last - (2^k - 1) * SEEK_CHECKPOINT_INTERVAL
+      // for the largest k that is still ahead of this one
+      long offset = 0;
+      long gap = SEEK_CHECKPOINT_INTERVAL;
+      while (offset + gap < last - checkpoint) {
+        offset += gap;
+        gap <<= 1;
+      }
+      int next = (int) (last - offset);
+      if (this.game instanceof HashLifeGameOfLife) {
+        ((HashLifeGameOfLife) this.game).jump(next - checkpoint);
+        checkpoint = next;
+      } else {
+        do {
+          int steps = Math.min(SEEK_CHECKPOINT_INTERVAL, next - checkpoint);
+          this.game.play(steps);
+          checkpoint += steps;
+          service.setProgress(checkpoint - currentTick, tick - currentTick);
+        } while (checkpoint < next && !service.isCancelled());
+      }
+      int[][] checkpointGrid = this.game.getGrid();
+      this.history.appendAt(checkpoint, checkpointGrid);
+      service.setProgress(checkpoint - currentTick, tick - currentTick);
+      service.publish(checkpoint, checkpointGrid, null);
+    }
+    this.game.play(1);
+    service.publishLast(checkpoint + 1, this.game.getGrid(), this.game.getChanges());
+    return checkpoint + 1;
+  }
+
+
+  /**
+   *  @param None
+   *  @return an exporter of the current grid size using every processor
+   */
+  private TextExporter newExporter() {
+    return new TextExporter(this.rowCount, this.colCount, Runtime.getRuntime().availableProcessors());
+  }
+
+
+  /**
+   *  This method reports the progress and speed of an export.
+   *  @param service - the service running the export
+   *  @param exporter - the exporter writing the ticks
+   *  @param queued - the number of ticks handed to the exporter
+   *  @param total - the number of ticks being exported
+   *  @return None
+   */
+  private void reportExport(SimulationService service, TextExporter exporter, int queued, int total) {
+    service.setProgress(queued, total);
+    service.setStatus(exporter.getSummary());
+  }
+
+
+  /**
+   *  This method tells the user how an export went, unless it was cancelled.
+   *  @param service - the service running the export
+   *  @param exporter - the exporter which has finished writing
+   *  @return None
+   */
+  private void exportDone(SimulationService service, TextExporter exporter) {
+    String summary = "Saved " + exporter.getSummary();
+    if (!service.isCancelled()) {
+      SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(null, summary));
+    }
+  }
+
+
+  /**
+   *  This method writes every tick up to the current one into a single
+   *  run archive. Ticks whose changes the history recorded are added
+   *  from those changes, and the rest from their Cells. If the task is
+   *  cancelled the partly written archive is deleted. Only call it from
+   *  a simulation task.
+   *  @param service - the service running the task
+   *  @param location - the archive to write
+   *  @param currentTick - the tick the game is on
+   *  @return None
+   */
+  private void saveRun(SimulationService service, Path location, int currentTick) throws IOException {
+    long startTime = System.nanoTime();
+    RunArchiveWriter archive = new RunArchiveWriter(location, this.rowCount, this.colCount,
+                                                    RunArchiveWriter.DEFAULT_KEYFRAME_INTERVAL);
+    try (archive) {
+      for (int i = 0; i < currentTick && !service.isCancelled(); i++) {
+        int[] changes = (i == 0) ? null : this.history.getChanges(i);
+        if (changes != null) {
+          archive.appendChanges(changes);
+        } else {
+          archive.appendCells(this.history.getCells(i));
+        }
+        service.setProgress(i + 1, currentTick + 1);
+      }
+      if (!service.isCancelled()) {
+        archive.appendCells(TextExporter.pack(this.game));
+      }
+    } catch(CancellationException e) {
+      // Cancelled while the history was rebuilding a tick
+    }
+    if (service.isCancelled()) {
+      Files.deleteIfExists(location);
       return;
     }
+    double seconds = Math.max(1e-9, (System.nanoTime() - startTime) / 1e9);
+    String summary = String.format("Saved %d ticks to %s, %.1f MB in %.2f s",
+                                   archive.size(), location, archive.getBytesWritten() / 1e6, seconds);
+    SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(null, summary));
+  }
+
+
+  /**
+   *  This method draws every tick up to the current one that the
+   *  exporter keeps as a frame. Ticks come from the run being replayed,
+   *  or from the history and, for the current tick, the engine itself.
+   *  Only call it from a simulation task.
+   *  @param service - the service running the task
+   *  @param exporter - the exporter to draw the frames with
+   *  @param currentTick - the tick the game is on
+   *  @return None
+   */
+  private void exportAnimation(SimulationService service, AnimationExporter exporter, int currentTick) throws Exception {
+    try (AnimationExporter frames = exporter) {
+      for (int i = 0; i <= currentTick && !service.isCancelled(); i++) {
+        if (!frames.wantsFrame(i)) {
+          continue;
+        }
+        if (this.replay != null) {
+          frames.addFrame(i, this.replay.getCells(i));
+        } else if (i == currentTick) {
+          frames.addFrame(i, this.game);
+        } else {
+          frames.addFrame(i, this.history.getCells(i));
+        }
+        service.setProgress(i + 1, currentTick + 1);
+        service.setStatus(frames.getSummary());
+      }
+      frames.finish();
+      String summary = "Saved " + frames.getSummary();
+      if (!service.isCancelled()) {
+        SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(null, summary));
+      }
+    }
+  }
+
+
+  /**
+   *  This method starts a task on the simulation thread and shows
+   *  the progress bar until it is done.
+   *  @param task - the work to run
+   *  @return None
+   */
+  private void runSimulation(SimulationService.Task task) {
+    runSimulation(task, true);
+  }
+
+
+  /**
+   *  This method starts a task on the simulation thread. The tick the
+   *  task ends on becomes the game's tick before the next task can start.
+   *  @param task - the work to run
+   *  @param showProgress - if true, show the progress bar until it is done
+   *  @return None
+   */
+  private void runSimulation(SimulationService.Task task, boolean showProgress) {
+    this.simulation.submit(task, error -> {
+      int lastTick = this.simulation.getLastTick();
+      if (lastTick >= 0) {
+        this.gameTick = lastTick;
+      }
+      SwingUtilities.invokeLater(() -> simulationDone(error));
+    });
+    this.progressBar.setValue(0);
+    this.progressBar.setVisible(showProgress);
+    this.cancelButton.setVisible(showProgress);
+  }
+
+
+  /**
+   *  This method is called on the Event Dispatch Thread when a
+   *  simulation task ends. It shows the last generation and reports
+   *  an error if the task failed.
+   *  @param error - the exception the task threw, or null
+   *  @return None
+   */
+  private void simulationDone(Exception error) {
+    showGenerations();
+    this.progressBar.setVisible(false);
+    this.cancelButton.setVisible(false);
+    this.tickControl.setPlaying(false);
+    if (error instanceof IOException) {
+      JOptionPane.showMessageDialog(null, "ERROR: Could not write to an output file");
+    } else if (error instanceof CancellationException) {
+      // Cancelled while the history was rebuilding a tick
+    } else if (error != null) {
+      error.printStackTrace();
+      JOptionPane.showMessageDialog(null, "ERROR: " + error.getMessage());
+    }
+  }
+
+
+  /**
+   *  This method shows the newest generation the simulation has
+   *  finished since it was last called, skipping any older ones, and
+   *  the progress of a running task. Once a second it also works out
+   *  the ticks and frames per second for the stats panel.
+   *  @param None
+   *  @return None
+   */
+  private void showGenerations() {
+    SimulationService.Generation newest = null;
+    SimulationService.Generation generation;
+    while ((generation = this.simulation.poll()) != null) {
+      newest = generation;
+    }
+    if (newest != null) {
+      int currentTick = this.statsPanel.getTick();
+      int newTick = newest.getTick();
+      if (newTick < currentTick) {
+        this.canvas.resetOpacity();
+        this.updateAndShowGUI(newest.getGrid(), newTick, false);
+      } else if (newTick == currentTick + 1 && newest.getChanges() != null) {
+        this.updateAndShowChanges(newest.getChanges(), newTick);
+      } else {
+        this.updateAndShowGUI(newest.getGrid(), newTick, true);
+      }
+      if (this.replay != null) {
+        this.scrubber.setValue(newTick);
+      }
+      this.framesShown++;
+    }
+    if (this.simulation.isRunning()) {
+      double progress = this.simulation.getProgress();
+      this.progressBar.setIndeterminate(progress < 0);
+      this.progressBar.setValue((int) Math.round(Math.max(progress, 0) * 100));
+      String status = this.simulation.getStatus();
+      this.progressBar.setStringPainted(status != null);
+      this.progressBar.setString(status);
+    }
+
+    long now = System.nanoTime();
+    if (now - this.rateStart >= 1000000000L) {
+      double seconds = (now - this.rateStart) / 1e9;
+      int ticks = Math.max(0, this.statsPanel.getTick() - this.rateStartTick);
+      this.statsPanel.updateRates(ticks / seconds, this.framesShown / seconds);
+      this.rateStart = now;
+      this.rateStartTick = this.statsPanel.getTick();
+      this.framesShown = 0;
+    }
+  }
+
+
+  /**
+   *  This method starts running the game continuously on the
+   *  simulation thread until it is paused.
+   *  @param None
+   *  @return None
+   */
+  public void startAutoplay() {
+    if (this.rowCount == 2) {
+      JOptionPane.showMessageDialog(null, "You must load in a new game before playing it");
+      return;
+    }
+    if (isBusy()) return;
+    int currentTick = this.gameTick;
+    if (this.replay != null) {
+      if (currentTick + 1 >= this.replay.size()) {
+        JOptionPane.showMessageDialog(null, "The run being replayed ends at tick " + currentTick);
+        return;
+      }
+      runSimulation(service -> replayRun(service, currentTick), false);
+    } else {
+      runSimulation(service -> autoplay(service, currentTick), false);
+    }
+    this.tickControl.setPlaying(true);
+  }
+
+
+  /**
+   *  This method runs the game one tick after another at ticksPerSecond,
+   *  or as fast as it can, until the task is cancelled. A generation is
+   *  published at most once a frame, and the display only shows the
+   *  newest. At a set rate every tick is stored in the history. Running
+   *  as fast as possible only stores a checkpoint every
+   *  SEEK_CHECKPOINT_INTERVAL ticks, since building a grid is as slow
+   *  as a generation on the fast engines. Only call it from a
+   *  simulation task.
+   *  @param service - the service running the task
+   *  @param currentTick - the tick the game is on
+   *  @return None
+   */
+  private void autoplay(SimulationService service, int currentTick) {
+    int tick = currentTick;
+    int lastStored = Integer.MIN_VALUE / 2;
+    int rate = -1;
+    long rateStart = 0;
+    long ticksAtRate = 0;
+    long lastPublished = System.nanoTime();
+    while (!service.isCancelled()) {
+      // Start counting again whenever the rate is changed
+      if (rate != this.ticksPerSecond) {
+        rate = this.ticksPerSecond;
+        rateStart = System.nanoTime();
+        ticksAtRate = 0;
+      }
+      if (rate > 0) {
+        long wait = rateStart + ticksAtRate * 1000000000L / rate - System.nanoTime();
+        if (wait > 0) {
+          LockSupport.parkNanos(Math.min(wait, FRAME_NANOS));
+          continue;
+        }
+      }
+      if (rate > 0 || tick - lastStored >= SEEK_CHECKPOINT_INTERVAL) {
+        this.history.appendAt(tick, this.game.getGrid());
+        lastStored = tick;
+      }
+      this.game.play(1);
+      tick++;
+      ticksAtRate++;
+      long now = System.nanoTime();
+      if (now - lastPublished >= FRAME_NANOS && service.wantsGeneration()) {
+        service.publish(tick, this.game.getGrid(), this.game.getChanges());
+        lastPublished = now;
+      }
+    }
+    // Leave the history holding every tick before the one the engine is on
+    if (lastStored != tick - 1) {
+      this.history.appendAt(tick, this.game.getGrid());
+      this.game.play(1);
+      tick++;
+    }
+    service.publishLast(tick, this.game.getGrid(), this.game.getChanges());
+  }
+
+
+  /**
+   *  This method explains why the current engine could not be made for
+   *  a loaded grid, which is down to its size on hashlife.
+   *  @param e - what the engine threw
+   *  @return the message to show
+   */
+  private String engineMismatch(IllegalArgumentException e) {
+    if (this.engineName.equals("hashlife")) {
+      return e.getMessage() + ".\nThe hashlife engine only runs grids whose width and height are powers of two. "
+             + PICK_ANOTHER_ENGINE;
+    }
+    return "ERROR: " + e.getMessage();
+  }
+
+
+  /**
+   *  This method tells the user to wait if the simulation is busy.
+   *  @param None
+   *  @return true if a simulation task is running
+   */
+  private boolean isBusy() {
+    if (this.simulation.isRunning()) {
+      JOptionPane.showMessageDialog(null, "Wait for the simulation to finish or cancel it first");
+      return true;
+    }
+    return false;
+  }
+
+
+  /**
+   *  This method tells the user to leave the replay if a run is being
+   *  replayed, since its ticks are not in the game or its history.
+   *  @param None
+   *  @return true if a run is being replayed
+   */
+  private boolean isReplaying() {
+    if (this.replay != null) {
+      JOptionPane.showMessageDialog(null, "Load a game to leave the replay first");
+      return true;
+    }
+    return false;
+  }
+
+
+  /**
+   *  This method moves the game onto a different engine, carrying
+   *  the current grid over to it.
+   *  @param engine - the name of the engine to switch to
+   *  @return None
+   *  @exception IllegalArgumentException is thrown if the engine cannot run this grid
+   */
+  public void switchEngine(String engine) {
+    if (this.game != null) {
+      LifeEngine newGame = LifeEngine.create(engine, rowCount, colCount);
+      newGame.setChangeTracking(true);
+      newGame.replaceGrid(this.game.getGrid());
+      this.game = newGame;
+    }
+    this.engineName = engine;
+    this.history.setEngine(engine);
+  }
+
+
+  /**
+   *  This method makes an empty history for a grid. It rebuilds evicted
+   *  ticks on the game's engine and stops doing so once the running
+   *  task is cancelled.
+   *  @param numRows - the number of rows in the grid
+   *  @param numCols - the number of columns in the grid
+   *  @return the new history
+   */
+  private TickHistory newHistory(int numRows, int numCols) {
+    TickHistory history = new TickHistory(numRows, numCols, this.engineName);
+    history.setCancelCheck(this.simulation::isCancelled);
+    return history;
   }
 
 
@@ -346,46 +964,57 @@ public class GUI {
       this.rowCount = Integer.valueOf( br.readLine() );
       this.colCount = Integer.valueOf( br.readLine() );
 
-      // Build the starting grid
+      // Build the starting grid, from the snapshot beside the settings
+      // if there is one and from the text after them if not
       int r = 0;
       int c = 0;
       int numAlive = 0;
       int numDead = 0;
-      String buffer;
-      int[][] inputGrid = new int[rowCount][colCount];
-      while ((buffer = br.readLine()) != null) {
-        char[] input = buffer.toCharArray();
-        c = 0;
-        for (char state : input) {
-          if (state == '0') {
-            inputGrid[r][c] = 0;
-            numDead++;
-            c++;
-          } else if (state == '1') {
-            inputGrid[r][c] = 1;
-            numAlive++;
-            c++;
+      int[][] inputGrid;
+      Path snapshot = currentRelativePath.toAbsolutePath().resolve(CONFIG_SNAPSHOT);
+      if (Files.exists(snapshot)) {
+        this.game = Snapshot.load(snapshot, this.engineName).getGame();
+        inputGrid = this.game.getGrid();
+        r = this.game.getNumRows();
+        c = this.game.getNumCols();
+        for (int[] row : inputGrid) {
+          for (int state : row) {
+            numAlive += state;
           }
         }
-        r++;
+        numDead = r * c - numAlive;
+      } else {
+        String buffer;
+        inputGrid = new int[rowCount][colCount];
+        while ((buffer = br.readLine()) != null) {
+          char[] input = buffer.toCharArray();
+          c = 0;
+          for (char state : input) {
+            if (state == '0') {
+              inputGrid[r][c] = 0;
+              numDead++;
+              c++;
+            } else if (state == '1') {
+              inputGrid[r][c] = 1;
+              numAlive++;
+              c++;
+            }
+          }
+          r++;
+        }
+        this.game = LifeEngine.create(this.engineName, r, c);
+        this.game.replaceGrid(inputGrid);
       }
       // Initialize the GameOfLife object
-      this.game = new GameOfLife(r, c);
-      this.game.replaceGrid(inputGrid);
+      this.rowCount = r;
+      this.colCount = c;
+      this.game.setChangeTracking(true);
+      this.history = newHistory(r, c);
       this.statsPanel = new StatisticsPanel(numAlive, numDead);
 
       // Reinitialize the grid
-      this.grid = new ArrayList<ArrayList<CellPanel>>();
-      for (int i = 0; i < rowCount; i++) {
-        this.grid.add(new ArrayList<CellPanel>());
-        for (int j = 0; j < colCount; j++) {
-          if (inputGrid[i][j] == 1) {
-            this.grid.get(i).add(new CellPanel(this.currentColor));
-          } else {
-            this.grid.get(i).add(new CellPanel(Color.WHITE));
-          }
-        }
-      }
+      this.canvas.setColor(this.currentColor);
+      this.canvas.setGrid(inputGrid);
     } catch(Exception e) {
       e.printStackTrace();
       System.out.println("No config file found");
@@ -408,22 +1037,16 @@ public class GUI {
       writer = new PrintWriter("_CONFIG_.txt", "UTF-8");
       writer.println(this.outFileName);
       writer.println(this.outDirectory);
-      writer.println(this.statsPanel.getTick());
+      writer.println(this.gameTick);
       writer.println(getColorName(this.currentColor));
       writer.println(this.rowCount);
       writer.println(this.colCount);
 
-      int[][] outGrid;
-      if (this.statsPanel.getTick() == 0)
-        outGrid = this.game.getGrid();
+      // The starting grid goes in a binary snapshot beside the settings
+      if (this.gameTick == 0 || this.replay != null)
+        Snapshot.save(Paths.get(CONFIG_SNAPSHOT), this.game, 0);
       else
-        outGrid = this.prevGrids.get(0);
-      for (int r = 0; r < rowCount; r++) {
-        for (int c = 0; c < colCount; c++) {
-          writer.printf("%d ", outGrid[r][c]);
-        }
-        writer.println();
-      }
+        Snapshot.save(Paths.get(CONFIG_SNAPSHOT), this.history.get(0), 0);
     } catch(Exception e) {
       System.out.println("Something went wrong while trying to write to config file...");
     } finally {
@@ -496,8 +1119,12 @@ public class GUI {
       JMenuItem newGame = new JMenuItem("Load Game", KeyEvent.VK_T);
       JMenuItem saveGameAll = new JMenuItem("Save All", KeyEvent.VK_T);
       JMenuItem saveGameRange = new JMenuItem("Save Range", KeyEvent.VK_T);
+      JMenuItem saveSnapshot = new JMenuItem("Save Snapshot");
+      JMenuItem exportPattern = new JMenuItem("Export Pattern");
+      JMenuItem openRun = new JMenuItem("Open Run");
+      JMenuItem exportAnimation = new JMenuItem("Export Animation");
 
-      // Allow a user to jump to any tick that he or she desires < 200
+      // Allow a user to jump to any tick that he or she desires
       goToTick.addActionListener(new ActionListener() {
         public void actionPerformed(ActionEvent e) {
           GoTo tickSelector = new GoTo();
@@ -509,7 +1136,7 @@ public class GUI {
           if (reply == -1 || reply == 1) return;
           int tick = tickSelector.getTick("What tick do you want to go to?  ");
           if (tick == -1)
-            JOptionPane.showMessageDialog(null, "Invalid input entered: must be int in range [0, 200]");
+            JOptionPane.showMessageDialog(null, "Invalid input entered: must be a nonnegative int");
           else if (tick == -2)
             return;
           else
@@ -520,48 +1147,180 @@ public class GUI {
       // Allow user to specify file to load in
       newGame.addActionListener(new ActionListener() {
         public void actionPerformed(ActionEvent e) {
+          if (isBusy()) return;
           JFileChooser fc = new JFileChooser();
           fc.setFileSelectionMode(JFileChooser.FILES_ONLY);
           int status = fc.showOpenDialog(null);
-          if (status == JFileChooser.APPROVE_OPTION && fc.getSelectedFile().getName().contains(".txt")) {
-            File selectedFile = fc.getSelectedFile();
+          String name = (status == JFileChooser.APPROVE_OPTION) ? fc.getSelectedFile().getName() : "";
+          if (name.endsWith(".snap") || name.endsWith(".rle") || name.endsWith(".cells")) {
             try {
-              int numRows = 0;
-              int numCols = 0;
-              Scanner sc = new Scanner(selectedFile);
-              if (sc.hasNext()) { // Extract the number of rows
-                String rowCount = sc.next();
-                rowCount = rowCount.substring(0, rowCount.length()-1);
-                numRows = Integer.parseInt(rowCount);
-              } if (sc.hasNext()) { // Extract the number of columns
-                String colCount = sc.next();
-                numCols = Integer.parseInt(colCount);
-              } if (numRows < 3 || numCols < 3) { // Check for size of grid
+              // A snapshot starts a new game from the grid it holds, and
+              // a pattern from the pattern with dead Cells around it
+              Path path = fc.getSelectedFile().toPath();
+              LifeEngine loaded;
+              if (name.endsWith(".snap"))
+                loaded = Snapshot.load(path, GUI.this.engineName).getGame();
+              else if (name.endsWith(".rle"))
+                loaded = RleFormat.read(path, GUI.this.engineName, PATTERN_MARGIN);
+              else
+                loaded = CellsFormat.read(path, GUI.this.engineName, PATTERN_MARGIN);
+              if (loaded.getNumRows() < 3 || loaded.getNumCols() < 3) {
                 JOptionPane.showMessageDialog(null, "Grid dimensions within file are invalid. Width and height must be > 3.");
+              } else {
+                startGame(loaded);
+              }
+            } catch(NoSuchFileException e1) {
+              JOptionPane.showMessageDialog(null, "The selected file path was not able to be found");
+            } catch(IllegalArgumentException e2) {
+              JOptionPane.showMessageDialog(null, engineMismatch(e2));
+            } catch(Exception e3) {
+              e3.printStackTrace();
+              JOptionPane.showMessageDialog(null, "ERROR: " + e3.getMessage());
+            }
+          } else if (name.contains(".txt")) {
+            File selectedFile = fc.getSelectedFile();
+            try (GridReader reader = GridReader.open(selectedFile.toPath())) {
+              int numRows = reader.getNumRows();
+              int numCols = reader.getNumCols();
+              if (numRows < 3 || numCols < 3) { // Check for size of grid
+                JOptionPane.showMessageDialog(null, "Grid dimensions within file are invalid. Width and height must be > 3.");
+              } else if (GUI.this.engineName.equals("hashlife") && !HashLifeGameOfLife.supports(numRows, numCols)) {
+                JOptionPane.showMessageDialog(null, "The hashlife engine needs power of two dimensions, but the grid is "
+                                              + numRows + "x" + numCols + ".\n" + PICK_ANOTHER_ENGINE);
               } else {
                 // Create new GameOfLife object, update values and grid
-                GUI.this.game = new GameOfLife(numRows, numCols);
-                GUI.this.game.populate(sc);
-                GUI.this.rowCount = numRows;
-                GUI.this.colCount = numCols;
-                GUI.this.statsPanel.update(0, 0, 0);
-                configureNewGrid(GUI.this.game.getGrid());
+                LifeEngine loaded = LifeEngine.create(GUI.this.engineName, numRows, numCols);
+                reader.readCells(loaded);
+                startGame(loaded);
               }
             }
             // Catch Java exceptions and display errors
-            catch(FileNotFoundException e1) {
+            catch(NoSuchFileException e1) {
               JOptionPane.showMessageDialog(null, "The selected file path was not able to be found");
-            } catch(Exception e2) {
-              e2.printStackTrace();
+            } catch(GridFormatException e2) {
+              JOptionPane.showMessageDialog(null, "The file does not match the format in README.md\n" + e2.getMessage());
+            } catch(Exception e3) {
+              e3.printStackTrace();
               JOptionPane.showMessageDialog(null, "An error occurred while trying to parse the file, make sure that it matches format in README.md");
             }
           } else {
-            JOptionPane.showMessageDialog(null, "No file selected or non .txt file selected");
+            JOptionPane.showMessageDialog(null, "No file selected or the file is not a .txt, .snap, .rle or .cells file");
+          }
+        }
+      });
+
+
+      // Replay a run that Save All wrote
+      openRun.addActionListener(new ActionListener() {
+        public void actionPerformed(ActionEvent e) {
+          if (isBusy()) return;
+          JFileChooser fc = new JFileChooser(GUI.this.outDirectory);
+          fc.setFileSelectionMode(JFileChooser.FILES_ONLY);
+          if (fc.showOpenDialog(null) != JFileChooser.APPROVE_OPTION) return;
+          try {
+            openRun(fc.getSelectedFile().toPath());
+          } catch(NoSuchFileException e1) {
+            JOptionPane.showMessageDialog(null, "The selected file path was not able to be found");
+          } catch(IllegalArgumentException e3) {
+            JOptionPane.showMessageDialog(null, engineMismatch(e3));
+          } catch(Exception e2) {
+            e2.printStackTrace();
+            JOptionPane.showMessageDialog(null, "ERROR: " + e2.getMessage());
+          }
+        }
+      });
+
+
+      // Save the current grid as a binary snapshot, which Load Game reads back
+      saveSnapshot.addActionListener(new ActionListener() {
+        public void actionPerformed(ActionEvent e) {
+          if (GUI.this.rowCount == 2 || GUI.this.colCount == 2) {
+            JOptionPane.showMessageDialog(null, "Please load in a grid first");
+            return;
+          }
+          if (isBusy() || isReplaying()) return;
+          JFileChooser fc = new JFileChooser();
+          fc.setFileSelectionMode(JFileChooser.FILES_ONLY);
+          if (fc.showSaveDialog(null) != JFileChooser.APPROVE_OPTION) return;
+          String file = fc.getSelectedFile().getPath();
+          Path location = Paths.get(file.endsWith(".snap") ? file : file + ".snap");
+          int currentTick = GUI.this.gameTick;
+          runSimulation(service -> Snapshot.save(location, GUI.this.game, currentTick), false);
+        }
+      });
+
+
+      // Save the current grid as an .rle pattern, or as .cells if that is the extension given
+      exportPattern.addActionListener(new ActionListener() {
+        public void actionPerformed(ActionEvent e) {
+          if (GUI.this.rowCount == 2 || GUI.this.colCount == 2) {
+            JOptionPane.showMessageDialog(null, "Please load in a grid first");
+            return;
+          }
+          if (isBusy() || isReplaying()) return;
+          JFileChooser fc = new JFileChooser();
+          fc.setFileSelectionMode(JFileChooser.FILES_ONLY);
+          if (fc.showSaveDialog(null) != JFileChooser.APPROVE_OPTION) return;
+          String file = fc.getSelectedFile().getPath();
+          if (file.endsWith(".cells")) {
+            runSimulation(service -> CellsFormat.write(Paths.get(file), GUI.this.game), false);
+          } else {
+            Path location = Paths.get(file.endsWith(".rle") ? file : file + ".rle");
+            runSimulation(service -> RleFormat.write(location, GUI.this.game), false);
           }
         }
       });
 
 
+      // Save the ticks up to the current one as an animated GIF, or as PNGs if that is the extension given
+      exportAnimation.addActionListener(new ActionListener() {
+        public void actionPerformed(ActionEvent e) {
+          if (GUI.this.rowCount == 2 || GUI.this.colCount == 2) {
+            JOptionPane.showMessageDialog(null, "Please load in a grid first");
+            return;
+          }
+          if (isBusy()) return;
+          JFileChooser fc = new JFileChooser();
+          fc.setFileSelectionMode(JFileChooser.FILES_ONLY);
+          if (fc.showSaveDialog(null) != JFileChooser.APPROVE_OPTION) return;
+          String file = fc.getSelectedFile().getPath();
+          String location;
+          if (file.endsWith(".png"))
+            location = file.substring(0, file.length() - 4);
+          else
+            location = file.endsWith(".gif") ? file : file + ".gif";
+
+          // Suggest skipping ticks so that a long run stays a reasonable size
+          int currentTick = GUI.this.gameTick;
+          int suggested = Math.max(1, (currentTick + MAX_ANIMATION_FRAMES) / MAX_ANIMATION_FRAMES);
+          String input = JOptionPane.showInputDialog(null, "Keep a frame every how many ticks?", suggested);
+          if (input == null) return;
+          int frameStep;
+          try {
+            frameStep = Integer.parseInt(input.trim());
+          } catch(NumberFormatException exception) {
+            frameStep = 0;
+          }
+          if (frameStep < 1) {
+            JOptionPane.showMessageDialog(null, "Invalid input entered: must be a positive int");
+            return;
+          }
+          int scale = Math.max(1, ANIMATION_SIZE / Math.max(GUI.this.rowCount, GUI.this.colCount));
+          int rate = GUI.this.ticksPerSecond;
+          int frameMillis = (rate > 0) ? 1000 / rate : 2 * FRAME_MILLIS;
+          AnimationExporter exporter;
+          try {
+            exporter = new AnimationExporter(location, GUI.this.rowCount, GUI.this.colCount, scale,
+                                             frameStep, frameMillis, GUI.this.currentColor);
+          } catch(IllegalArgumentException | IOException exception) {
+            JOptionPane.showMessageDialog(null, "ERROR: " + exception.getMessage());
+            return;
+          }
+          runSimulation(service -> exportAnimation(service, exporter, currentTick));
+        }
+      });
+
+
       // SAVE ALL feature to save all ticks up to current
       saveGameAll.addActionListener(new ActionListener() {
         public void actionPerformed(ActionEvent e) {
@@ -569,28 +1328,19 @@ public class GUI {
             JOptionPane.showMessageDialog(null, "Please load in a grid first");
             return;
           }
+          if (isBusy() || isReplaying()) return;
           int rc = -1;
-          int currentTick = GUI.this.statsPanel.getTick();
-          boolean writeOverFile = overwriteFiles(GUI.this.outDirectory, 0, currentTick);
+          int currentTick = GUI.this.gameTick;
+          Path location = runArchiveFile();
+          boolean writeOverFile = Files.exists(location);
           if (writeOverFile) {
             String[] options = { "YES", "NO" };
-            rc = JOptionPane.showOptionDialog(null, "Do you want to overwrite files?",
+            rc = JOptionPane.showOptionDialog(null, "Do you want to overwrite " + location.getFileName() + "?",
                                         "Click a button", JOptionPane.DEFAULT_OPTION,
                                         JOptionPane.INFORMATION_MESSAGE, null, options, options[0]);
           }
           if (rc == 0 || !writeOverFile) {
-            try {
-              int i;
-              String location = GUI.this.outDirectory + "/" + GUI.this.outFileName;
-              for (i = 0; i < currentTick; i++) {
-                int[][] outGrid = GUI.this.prevGrids.get(i);
-                GUI.this.game.print(outGrid, i, location);
-              }
-              int[][] currentGrid = GUI.this.game.getGrid();
-              GUI.this.game.print(currentGrid, i, location);
-            } catch(IOException exception) {
-                JOptionPane.showMessageDialog(null, "ERROR: Could not write to an output file");
-            }
+            runSimulation(service -> saveRun(service, location, currentTick));
           }
         }
       });
@@ -603,6 +1353,7 @@ public class GUI {
             JOptionPane.showMessageDialog(null, "Please load in a grid first");
             return;
           }
+          if (isBusy() || isReplaying()) return;
           // Create the box and pass it required information
           RangeDialogBox inputBox = new RangeDialogBox();
           String[] options = { "Submit", "Cancel" };
@@ -624,12 +1375,10 @@ public class GUI {
               JOptionPane.showMessageDialog(null, "Values must be nonnegative");
             } else if (startRange > endRange) {
               JOptionPane.showMessageDialog(null, "Ending tick must be greater than or equal to staring tick");
-            } else if (endRange > 200) {
-              JOptionPane.showMessageDialog(null, "Ending tick is too large, must be < 200");
             } else {
               // See if user wants to overwrite files
               int rc = -1;
-              int currentTick = GUI.this.statsPanel.getTick();
+              int currentTick = GUI.this.gameTick;
               boolean writeOverFile = overwriteFiles(GUI.this.outDirectory, startRange, endRange);
               if (writeOverFile) {
                 String[] opts = { "YES", "NO" };
@@ -638,22 +1387,23 @@ public class GUI {
                                             JOptionPane.INFORMATION_MESSAGE, null, opts, opts[0]);
               }
               if (rc == 1) return;
-              String outFile = GUI.this.outFileName;
-              // Move current tick to users desired end range
-              if (endRange > currentTick) {
-                boolean display = false;
-                while (currentTick <= endRange) {
-                  nextTick(display);
-                  currentTick++;
-                }
-              }
-              // Print grids within the range to the outfile
               String location = GUI.this.outDirectory + "/" + GUI.this.outFileName;
-              for (int i = startRange; i <= endRange; i++) {
-                int[][] outGrid = GUI.this.prevGrids.get(i);
-                GUI.this.game.print(outGrid, i, location);
-              }
-              System.out.printf("Saving %d files to %s\n", endRange-startRange+1, GUI.this.outDirectory);
+              runSimulation(service -> {
+                // Move current tick to users desired end range
+                if (endRange >= currentTick && seek(service, currentTick, endRange + 1) <= endRange) {
+                  return;
+                }
+                // Print grids within the range to the outfile
+                System.out.printf("Saving %d files to %s\n", endRange-startRange+1, GUI.this.outDirectory);
+                try (TextExporter exporter = newExporter()) {
+                  for (int i = startRange; i <= endRange && !service.isCancelled(); i++) {
+                    exporter.export(i, GUI.this.history.getCells(i), location);
+                    reportExport(service, exporter, i - startRange + 1, endRange - startRange + 1);
+                  }
+                  exporter.finish();
+                  exportDone(service, exporter);
+                }
+              });
             }
           } catch(Exception exception) {
             JOptionPane.showMessageDialog(null, "Invalid input entered");
@@ -665,7 +1415,8 @@ public class GUI {
       // Configuration panel set up and event on action
       config.addActionListener(new ActionListener() {
         public void actionPerformed(ActionEvent e) {
-          Config configurationPanel = new Config();
+          if (isBusy()) return;
+          Config configurationPanel = new Config(LifeEngine.GRID_ENGINES, GUI.this.engineName);
           String[] options = { "Submit", "Cancel" };
           int optionType = JOptionPane.DEFAULT_OPTION;
           int messageType = JOptionPane.PLAIN_MESSAGE;
@@ -688,11 +1439,28 @@ public class GUI {
           } else {
             GUI.this.outFileName = filePattern;
           }
+
+          // Move the game onto the selected engine
+          String engine = configurationPanel.getEngine();
+          if (!engine.equals(GUI.this.engineName)) {
+            try {
+              switchEngine(engine);
+              if (engine.equals("hashlife") && GUI.this.game == null) {
+                JOptionPane.showMessageDialog(null, "The hashlife engine only loads grids whose width and height are powers of two");
+              }
+            } catch(IllegalArgumentException exception) {
+              JOptionPane.showMessageDialog(null, exception.getMessage());
+            }
+          }
         }
       });
       game.add(newGame);
       game.add(saveGameAll);
       game.add(saveGameRange);
+      game.add(saveSnapshot);
+      game.add(exportPattern);
+      game.add(exportAnimation);
+      game.add(openRun);
       this.add(game);
       this.add(tools);
       this.add(config);
@@ -722,42 +1490,80 @@ public class GUI {
 
     private JButton back;
     private JButton next;
+    private JButton play;
+    private JComboBox<String> rate;
+    private boolean playing;
 
     /**
      *  The constructor for TickControl takes in two colors and assigns
-     *  them to the back and next buttons which are added to a JPanel.
+     *  them to the back and next buttons which are added to a JPanel,
+     *  with a Play button between them and a choice of ticks per second.
      *  @param backColor - Sets the 'Back' button to backColor
      *  @param nextColor - Sets the 'Next' button to nextColor
      */
     public TickControl(Color backColor, Color nextColor) {
       this.back = new JButton("Back");
       this.next = new JButton("Next");
+      this.play = new JButton("Play");
       this.back.setBackground(backColor);
       this.next.setBackground(nextColor);
+      this.rate = new JComboBox<String>(TICK_RATES);
+      this.rate.setSelectedItem(Integer.toString(ticksPerSecond));
       this.setLayout(new FlowLayout());
-      add(back); add(next);
+      add(back); add(play); add(next);
+      add(new JLabel("Ticks/sec")); add(rate);
+
+      // User selected the play or pause button
+      play.addActionListener(new ActionListener() {
+        public void actionPerformed(ActionEvent e) {
+          if (playing) {
+            simulation.cancel();
+          } else {
+            startAutoplay();
+          }
+        }
+      });
+
+      // User picked how fast to play, which applies straight away
+      rate.addActionListener(new ActionListener() {
+        public void actionPerformed(ActionEvent e) {
+          String selectedRate = (String) rate.getSelectedItem();
+          ticksPerSecond = selectedRate.equals("Max") ? 0 : Integer.parseInt(selectedRate);
+        }
+      });
 
       // User selected the next button
       next.addActionListener(new ActionListener() {
         public void actionPerformed(ActionEvent e) {
-          nextTick(true);
+          nextTick();
         }
       });
 
       // User selected the back button
       back.addActionListener(new ActionListener() {
         public void actionPerformed(ActionEvent e) {
-          int currentTick = GUI.this.statsPanel.getTick();
+          int currentTick = GUI.this.gameTick;
           if (currentTick == 0 && GUI.this.rowCount == 2) {
             JOptionPane.showMessageDialog(null, "You must load in a new game before stepping through it");
-          } else if (GUI.this.statsPanel.getTick() == 0) {
+          } else if (GUI.this.gameTick == 0) {
             JOptionPane.showMessageDialog(null, "Can't go back from tick 0");
           } else {
-            previousTick(true);
+            previousTick();
           }
         }
       });
     }
+
+    /**
+     *  Show whether the game is playing, turning the Play button
+     *  into a Pause button while it is.
+     *  @param playing - true while the game is playing
+     *  @return None
+     */
+    public void setPlaying(boolean playing) {
+      this.playing = playing;
+      this.play.setText(playing ? "Pause" : "Play");
+    }
   }
 
 
@@ -4,17 +4,14 @@
  */
 
 package code.driver;
-import java.util.Scanner;
-import java.io.BufferedWriter;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.util.NoSuchElementException;
 
-public class GameOfLife {
+public class GameOfLife extends LifeEngine {
 
   private int[][] grid;
-  private int numRows;
-  private int numCols;
+  private int[][] nextGrid;
+  private boolean doubleBuffered;
+  private long bytesPerTick = -1;
 
   /**
    *  Construct a 2D grid with a number of rows and columns
@@ -22,68 +19,56 @@ public class GameOfLife {
    *  @param numCols - the number of columns in the grid
    */
   public GameOfLife(int numRows, int numCols) {
-    grid = new int[numRows][numCols];
-    this.numRows = numRows;
-    this.numCols = numCols;
+    this(numRows, numCols, false);
   }
 
   /**
-   *  This method loads in a new grid and replaces the current
-   *  one with the new one. It exits the program if an invalid
-   *  grid is supplied. Only call when sure that newGrid has same
-   *  dimensions as GameOfLife's current grid.
-   *  @param newGrid - the new 2D grid of ints replacing the existing one
-   *  @return None
+   *  Construct a 2D grid with a number of rows and columns. In double
+   *  buffered mode a second grid is allocated up front and the two are
+   *  swapped after every tick, so play does not allocate anything.
+   *  @param numRows - the number of rows in the grid
+   *  @param numCols - the number of columns in the grid
+   *  @param doubleBuffered - if true, step between two preallocated grids
    */
-  public void replaceGrid(int[][] newGrid) {
-    try {
-      for (int r = 0; r < numRows; r++) {
-        for (int c = 0; c < numCols; c++) {
-          this.grid[r][c] = newGrid[r][c];
-        }
-      }
-    } catch(Exception e) {
-      e.printStackTrace();
-      System.err.format("Likely invalid grid dimensions");
-      System.exit(1);
+  public GameOfLife(int numRows, int numCols, boolean doubleBuffered) {
+    super(numRows, numCols);
+    grid = new int[numRows][numCols];
+    this.doubleBuffered = doubleBuffered;
+    if (doubleBuffered) {
+      nextGrid = new int[numRows][numCols];
     }
   }
 
   /**
-   *  This method returns the GameOfLife grid as 1s and 0s.
-   *  It makes a copy to avoids representation exposure.
+   *  Accessor method for the number of bytes the last call to play
+   *  allocated on its thread, averaged over the ticks it ran.
    *  @param None
-   *  @return a 2D array of ints
+   *  @return the bytes allocated per tick, -1 if the JVM cannot measure it
    */
-  public int[][] getGrid() {
-    int[][] retGrid = new int[numRows][numCols];
-    for (int r = 0; r < numRows; r++) {
-      for (int c = 0; c < numCols; c++) {
-        retGrid[r][c] = this.grid[r][c];
-      }
-    }
-    return retGrid;
+  public long getBytesAllocatedPerTick() {
+    return this.bytesPerTick;
   }
 
-
   /**
-   *  This method takes in a Scanner object which then reads in the
-   *  states of the Cells in the game from a text file. It adds the state
-   *  of the cell to the game grid.
-   *  @param sc - a Scanner object reading from a text file
+   *  Accessor method for the state of a single Cell.
+   *  @param r - the row location
+   *  @param c - the column location
+   *  @return 1 if the Cell is alive, 0 if dead
    */
-  public void populate(Scanner sc) {
-    for (int r = 0; r < numRows; r++) {
-      for (int c = 0; c < numCols; c++) {
-        char digit = sc.next().charAt(0);
-        if (digit == '0' || digit == '1') {
-          int state = Character.getNumericValue(digit);
-          grid[r][c] = state;
-        }
-      }
-    }
+  public int getCell(int r, int c) {
+    return grid[r][c];
   }
 
+  /**
+   *  Set the state of a single Cell.
+   *  @param r - the row location
+   *  @param c - the column location
+   *  @param state - 1 to make the Cell alive, 0 to kill it
+   *  @return None
+   */
+  public void setCell(int r, int c, int state) {
+    grid[r][c] = state;
+  }
 
   /**
    *  This method takes in the position of a Cell
@@ -243,11 +228,64 @@ public class GameOfLife {
    *  This method takes in the number of steps to run the GameOfLife
    *  for. It creates an array with the new states of the Cell's
    *  after the current round of the game. It then updates the grid
-   *  with the values and writes it to a text file.
+   *  with the values. In double buffered mode the new states are
+   *  written into the spare grid, which then becomes the current one.
    *  @param stepCount - the number of steps to run the game for
    *  @return None
    */
   public void play(int stepCount) {
+    long allocatedBefore = AllocationMeter.threadAllocatedBytes();
+    if (doubleBuffered) {
+      for (int i = 0; i < stepCount; i++) {
+        for (int r = 0; r < numRows; r++) {
+          for (int c = 0; c < numCols; c++) {
+            nextGrid[r][c] = checkState(r, c);
+          }
+        }
+        if (trackChanges && i == stepCount - 1) {
+          recordChanges();
+        }
+        int[][] temp = grid;
+        grid = nextGrid;
+        nextGrid = temp;
+      }
+    } else {
+      playCopying(stepCount);
+    }
+    long allocatedAfter = AllocationMeter.threadAllocatedBytes();
+    if (allocatedBefore >= 0 && stepCount > 0) {
+      bytesPerTick = (allocatedAfter - allocatedBefore) / stepCount;
+    }
+  }
+
+
+  /**
+   *  This method records the Cells which differ between the grid and
+   *  the generation just computed into nextGrid.
+   *  @param None
+   *  @return None
+   */
+  private void recordChanges() {
+    clearChanges();
+    for (int r = 0; r < numRows; r++) {
+      for (int c = 0; c < numCols; c++) {
+        if (grid[r][c] != nextGrid[r][c]) {
+          recordChange(r * numCols + c);
+        }
+      }
+    }
+  }
+
+
+  /**
+   *  Run the game by building every new generation in a fresh
+   *  array and copying it back into the grid. The Cells that flip are
+   *  found while copying, so the standard engine reports its changes
+   *  just like the double buffered one.
+   *  @param stepCount - the number of steps to run the game for
+   *  @return None
+   */
+  private void playCopying(int stepCount) {
     int numCells = numRows * numCols;
     for (int i = 0; i < stepCount; i++) {
 
@@ -261,10 +299,18 @@ public class GameOfLife {
         }
       }
 
-      // Update this grid with new states of the Cells
+      // Update this grid with new states of the Cells, noting which
+      // ones flip in the last generation
+      boolean record = trackChanges && i == stepCount - 1;
+      if (record) {
+        clearChanges();
+      }
       int rIndex = 0;
       int cIndex = 0;
       for (int c = 0; c < numCells; c++) {
+        if (record && grid[rIndex][cIndex] != newGrid[c]) {
+          recordChange(c);
+        }
         if (newGrid[c] == 1) {
           grid[rIndex][cIndex] = 1;
         } else {
@@ -278,42 +324,4 @@ public class GameOfLife {
       }
     }
   }
-
-
-  /**
-   *  This method loops through the grid and outputs the result.
-   *  to a text file. It is formatted to look like a grid.
-   *  @param outGrid - the grid to be printed
-   *  @param tick - the current tick of the game
-   *  @param outputFile - the output file to write contents to
-   *  @throws IOException - throws IOException if outputting fails
-   */
-  public void print(int[][] outGrid, int tick, String outputFile) throws IOException {
-    try {
-    String tickStr = Integer.toString(tick);
-    outputFile = outputFile + tick + ".txt";
-    BufferedWriter writer = new BufferedWriter(new FileWriter(outputFile));
-
-    StringBuilder border = new StringBuilder();
-    int numChars = numCols*2 + 3;
-    for (int i = 0; i < numChars; i++) {
-      border.append('-');
-    }
-    // Print out the entire grid
-    String strBorder = border.toString();
-    writer.write(strBorder + "\n");
-    for (int r = 0; r < numRows; r++) {
-      writer.write("|");
-      for (int c = 0; c < numCols; c++) {
-        String str = String.format(" %d", outGrid[r][c]);
-        writer.write(str);
-      }
-      writer.write(" |\n");
-    }
-    writer.write(border + "\n");
-    writer.close();
-  } catch(Exception e) {
-    e.printStackTrace();
-  }
-  }
 }
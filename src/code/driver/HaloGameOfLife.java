@@ -0,0 +1,123 @@
+/**
+ *  @author Chris Turgeon
+ *  @version 1.0
+ */
+
+package code.driver;
+
+public class HaloGameOfLife extends LifeEngine {
+
+  // Next state of a Cell, indexed by (state << 4) | numNeighbors
+  private static final byte[] RULE = new byte[32];
+  static {
+    RULE[3] = 1;                // A dead Cell with 3 neighbors is born
+    RULE[16 + 2] = 1;           // A live Cell with 2 or 3 neighbors survives
+    RULE[16 + 3] = 1;
+  }
+
+  protected byte[] cells;
+  protected byte[] nextCells;
+  protected int stride;
+
+  /**
+   *  Construct a grid stored as one flat array of bytes with a one Cell
+   *  border on every side. Before each generation the border is filled
+   *  with the Cells from the opposite edge, so every Cell in the grid
+   *  has all eight neighbors next to it in memory.
+   *  @param numRows - the number of rows in the grid
+   *  @param numCols - the number of columns in the grid
+   */
+  public HaloGameOfLife(int numRows, int numCols) {
+    super(numRows, numCols);
+    this.stride = numCols + 2;
+    this.cells = new byte[(numRows + 2) * stride];
+    this.nextCells = new byte[(numRows + 2) * stride];
+  }
+
+  /**
+   *  Accessor method for the state of a single Cell.
+   *  @param r - the row location
+   *  @param c - the column location
+   *  @return 1 if the Cell is alive, 0 if dead
+   */
+  public int getCell(int r, int c) {
+    return cells[(r + 1) * stride + c + 1];
+  }
+
+  /**
+   *  Set the state of a single Cell.
+   *  @param r - the row location
+   *  @param c - the column location
+   *  @param state - 1 to make the Cell alive, 0 to kill it
+   *  @return None
+   */
+  public void setCell(int r, int c, int state) {
+    cells[(r + 1) * stride + c + 1] = (byte) state;
+  }
+
+  /**
+   *  This method runs the game for a number of generations. Each
+   *  generation refreshes the border once, computes the new states
+   *  into the spare array and then swaps the two arrays.
+   *  @param stepCount - the number of steps to run the game for
+   *  @return None
+   */
+  public void play(int stepCount) {
+    for (int i = 0; i < stepCount; i++) {
+      refreshHalo();
+      computeGeneration();
+      byte[] temp = cells;
+      cells = nextCells;
+      nextCells = temp;
+    }
+  }
+
+  /**
+   *  Compute the next state of every Cell in the grid.
+   *  @param None
+   *  @return None
+   */
+  protected void computeGeneration() {
+    computeRows(1, numRows);
+  }
+
+  /**
+   *  Compute the next state of the Cells in a band of rows. Rows are
+   *  numbered as stored, so the first row of the grid is row 1.
+   *  @param firstRow - the first stored row to compute
+   *  @param lastRow - the last stored row to compute
+   *  @return None
+   */
+  protected void computeRows(int firstRow, int lastRow) {
+    byte[] src = this.cells;
+    byte[] dst = this.nextCells;
+    for (int r = firstRow; r <= lastRow; r++) {
+      int above = (r - 1) * stride;
+      int row = r * stride;
+      int below = (r + 1) * stride;
+      for (int c = 1; c <= numCols; c++) {
+        int numNeighbors = src[above + c - 1] + src[above + c] + src[above + c + 1]
+                         + src[row + c - 1]                    + src[row + c + 1]
+                         + src[below + c - 1] + src[below + c] + src[below + c + 1];
+        dst[row + c] = RULE[(src[row + c] << 4) | numNeighbors];
+      }
+    }
+  }
+
+  /**
+   *  Copy the Cells on each edge of the grid into the border on the
+   *  opposite side. Columns are wrapped first so that copying whole
+   *  rows afterwards also fills in the four corners.
+   *  @param None
+   *  @return None
+   */
+  protected void refreshHalo() {
+    for (int r = 1; r <= numRows; r++) {
+      int row = r * stride;
+      cells[row] = cells[row + numCols];
+      cells[row + numCols + 1] = cells[row + 1];
+    }
+    System.arraycopy(cells, numRows * stride, cells, 0, stride);
+    System.arraycopy(cells, stride, cells, (numRows + 1) * stride, stride);
+  }
+}
@@ -0,0 +1,627 @@
+/**
+ *  @author Chris Turgeon
+ *  @version 1.0
+ */
+
+package code.driver;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Scanner;
+
+public class HashLifeGameOfLife extends LifeEngine {
+
+  // Rough size of a Node together with its entry in the node table
+  private static final long NODE_BYTES = 120;
+
+  private HashMap<Node, Node> nodes = new HashMap<Node, Node>();
+  private ArrayList<Node> emptyNodes = new ArrayList<Node>();
+  private Node dead;
+  private Node alive;
+  private Node root;
+  private int level;
+  private long maxNodes;
+
+  // Rows being loaded with setRow or populate, 64 Cells to a long. The
+  // quadtree is built from them in one go when the grid is next read,
+  // instead of rebuilding a path of nodes for every Cell.
+  private long[][] pendingRows;
+
+  /**
+   *  Construct a grid stored as a quadtree of shared, canonical nodes.
+   *  The memory budget defaults to a quarter of the maximum heap.
+   *  @param numRows - the number of rows in the grid, a power of two
+   *  @param numCols - the number of columns in the grid, a power of two
+   *  @exception IllegalArgumentException is thrown if a dimension is not a power of two
+   */
+  public HashLifeGameOfLife(int numRows, int numCols) {
+    this(numRows, numCols, Runtime.getRuntime().maxMemory() / 4);
+  }
+
+  /**
+   *  Construct a grid stored as a quadtree of shared, canonical nodes.
+   *  The torus is tiled into a square with a side of the larger dimension,
+   *  so it wraps the same way as the other engines. Once the node table
+   *  grows past memoryBudget, nodes the grid no longer uses are dropped
+   *  along with all remembered results.
+   *  @param numRows - the number of rows in the grid, a power of two
+   *  @param numCols - the number of columns in the grid, a power of two
+   *  @param memoryBudget - roughly how many bytes the node table may use
+   *  @exception IllegalArgumentException is thrown if a dimension is not a power of two
+   */
+  public HashLifeGameOfLife(int numRows, int numCols, long memoryBudget) {
+    super(numRows, numCols);
+    if (!supports(numRows, numCols)) {
+      throw new IllegalArgumentException("HashLife needs power of two dimensions, not " + numRows + "x" + numCols);
+    }
+    this.level = Integer.numberOfTrailingZeros(Math.max(Math.max(numRows, numCols), 2));
+    this.maxNodes = Math.max(memoryBudget / NODE_BYTES, 1024);
+    this.dead = new Node(0);
+    this.alive = new Node(1);
+    this.root = empty(level);
+  }
+
+  /**
+   *  This method tells whether a grid can be run by this engine.
+   *  @param numRows - the number of rows in the grid
+   *  @param numCols - the number of columns in the grid
+   *  @return true if both dimensions are powers of two
+   */
+  public static boolean supports(int numRows, int numCols) {
+    return numRows > 0 && numCols > 0 && Integer.bitCount(numRows) == 1 && Integer.bitCount(numCols) == 1;
+  }
+
+  /**
+   *  Accessor method for the number of canonical nodes being stored.
+   *  @param None
+   *  @return the size of the node table
+   */
+  public int getNodeCount() {
+    buildPendingRows();
+    return nodes.size();
+  }
+
+  /**
+   *  Accessor method for the number of live Cells in the grid.
+   *  @param None
+   *  @return the population of the grid
+   */
+  public long getPopulation() {
+    buildPendingRows();
+    return root.population / ((long) (1 << level) / numRows) / ((long) (1 << level) / numCols);
+  }
+
+  /**
+   *  Accessor method for the state of a single Cell.
+   *  @param r - the row location
+   *  @param c - the column location
+   *  @return 1 if the Cell is alive, 0 if dead
+   */
+  public int getCell(int r, int c) {
+    buildPendingRows();
+    Node node = root;
+    for (int half = (1 << level) >> 1; half > 0; half >>= 1) {
+      boolean south = (r >= half);
+      boolean east = (c >= half);
+      if (south) r -= half;
+      if (east) c -= half;
+      node = south ? (east ? node.se : node.sw) : (east ? node.ne : node.nw);
+    }
+    return (int) node.population;
+  }
+
+  /**
+   *  Set the state of a single Cell, and of every copy of it in the tiling.
+   *  @param r - the row location
+   *  @param c - the column location
+   *  @param state - 1 to make the Cell alive, 0 to kill it
+   *  @return None
+   */
+  public void setCell(int r, int c, int state) {
+    if (pendingRows != null) {
+      long bit = 1L << c;
+      pendingRows[r][c >>> 6] = (state == 1) ? (pendingRows[r][c >>> 6] | bit) : (pendingRows[r][c >>> 6] & ~bit);
+      return;
+    }
+    int side = 1 << level;
+    for (int i = r; i < side; i += numRows) {
+      for (int j = c; j < side; j += numCols) {
+        root = setCell(root, i, j, state == 1 ? alive : dead);
+      }
+    }
+  }
+
+  /**
+   *  Set a whole row of Cells from 64 Cells to a long. The row is held
+   *  until the grid is next read, so loading a grid a row at a time
+   *  builds the quadtree only once.
+   *  @param r - the row to set
+   *  @param bits - at least (numCols + 63) / 64 words holding the row
+   *  @return None
+   */
+  public void setRow(int r, long[] bits) {
+    startPendingRows();
+    System.arraycopy(bits, 0, pendingRows[r], 0, pendingRows[r].length);
+  }
+
+  /**
+   *  This method reads the states of the Cells from a text file, holding
+   *  them as rows and building the quadtree once at the end.
+   *  @param sc - a Scanner object reading from a text file
+   */
+  public void populate(Scanner sc) {
+    startPendingRows();
+    super.populate(sc);
+    buildPendingRows();
+  }
+
+  /**
+   *  This method loads in a new grid and replaces the current one,
+   *  building the quadtree from the bottom up.
+   *  @param newGrid - the new 2D grid of ints replacing the existing one
+   *  @return None
+   */
+  public void replaceGrid(int[][] newGrid) {
+    pendingRows = null;
+    try {
+      root = build(newGrid, level, 0, 0);
+    } catch(Exception e) {
+      e.printStackTrace();
+      System.err.format("Likely invalid grid dimensions");
+      System.exit(1);
+    }
+    collectIfOverBudget();
+  }
+
+  /**
+   *  This method returns the grid as 1s and 0s.
+   *  @param None
+   *  @return a 2D array of ints
+   */
+  public int[][] getGrid() {
+    buildPendingRows();
+    int[][] retGrid = new int[numRows][numCols];
+    fill(root, retGrid, 0, 0);
+    return retGrid;
+  }
+
+  /**
+   *  Run the game for a number of generations.
+   *  @param stepCount - the number of steps to run the game for
+   *  @return None
+   */
+  public void play(int stepCount) {
+    jump(stepCount);
+  }
+
+  /**
+   *  Advance the game by any number of generations. The count is split
+   *  into powers of two and each of those is a single memoised step.
+   *  @param generations - the number of generations to advance
+   *  @return None
+   */
+  public void jump(long generations) {
+    for (int k = 0; generations != 0; k++, generations >>>= 1) {
+      if ((generations & 1) != 0) {
+        jumpPowerOfTwo(k);
+      }
+    }
+  }
+
+  /**
+   *  Advance the game by 2^k generations in one step. The torus is tiled
+   *  into a node large enough for the step, and since the tiling repeats
+   *  every side Cells, any aligned square of the result is the new torus.
+   *  @param k - the power of two of the number of generations
+   *  @return None
+   */
+  public void jumpPowerOfTwo(int k) {
+    buildPendingRows();
+    int outer = Math.max(k + 2, level + 2);
+    Node tiled = root;
+    for (int l = level; l < outer; l++) {
+      tiled = join(tiled, tiled, tiled, tiled);
+    }
+    Node result = step(tiled, k);
+    while (result.level > level) {
+      result = result.nw;
+    }
+    root = result;
+    collectIfOverBudget();
+  }
+
+
+  /**
+   *  This method starts holding rows being loaded, copying the current
+   *  Cells into them.
+   *  @param None
+   *  @return None
+   */
+  private void startPendingRows() {
+    if (pendingRows != null) {
+      return;
+    }
+    pendingRows = new long[numRows][(numCols + 63) >>> 6];
+    fillRows(root, pendingRows, 0, 0);
+  }
+
+  /**
+   *  This method builds the quadtree from the rows being loaded, if any,
+   *  and drops the nodes the old grid used once over budget.
+   *  @param None
+   *  @return None
+   */
+  private void buildPendingRows() {
+    if (pendingRows == null) {
+      return;
+    }
+    long[][] rows = pendingRows;
+    pendingRows = null;
+    root = build(rows, level, 0, 0);
+    collectIfOverBudget();
+  }
+
+  /**
+   *  This method returns the canonical node with the given children.
+   *  @param nw - the north west quadrant
+   *  @param ne - the north east quadrant
+   *  @param sw - the south west quadrant
+   *  @param se - the south east quadrant
+   *  @return the shared node for those four quadrants
+   */
+  private Node join(Node nw, Node ne, Node sw, Node se) {
+    Node probe = new Node(nw, ne, sw, se);
+    Node existing = nodes.get(probe);
+    if (existing != null) {
+      return existing;
+    }
+    nodes.put(probe, probe);
+    return probe;
+  }
+
+  /**
+   *  This method returns the canonical empty node of a level.
+   *  @param l - the level of the node
+   *  @return a node of side 2^l with no live Cells
+   */
+  private Node empty(int l) {
+    while (emptyNodes.size() <= l) {
+      int size = emptyNodes.size();
+      if (size == 0) {
+        emptyNodes.add(dead);
+      } else {
+        Node e = emptyNodes.get(size - 1);
+        emptyNodes.add(join(e, e, e, e));
+      }
+    }
+    return emptyNodes.get(l);
+  }
+
+  /**
+   *  Build the node covering a square of the tiled grid.
+   *  @param grid - the grid of 1s and 0s
+   *  @param l - the level of the node to build
+   *  @param r - the top row of the square
+   *  @param c - the left column of the square
+   *  @return the canonical node for that square
+   */
+  private Node build(int[][] grid, int l, int r, int c) {
+    if (l == 0) {
+      return (grid[r % numRows][c % numCols] == 1) ? alive : dead;
+    }
+    int half = 1 << (l - 1);
+    return join(build(grid, l - 1, r, c), build(grid, l - 1, r, c + half),
+                build(grid, l - 1, r + half, c), build(grid, l - 1, r + half, c + half));
+  }
+
+  /**
+   *  Build the node covering a square of the tiled grid from rows of
+   *  64 Cells to a long. Squares of dead Cells are found a word at a
+   *  time and become the shared empty node.
+   *  @param rows - the rows of the grid
+   *  @param l - the level of the node to build
+   *  @param r - the top row of the square
+   *  @param c - the left column of the square
+   *  @return the canonical node for that square
+   */
+  private Node build(long[][] rows, int l, int r, int c) {
+    if (l == 0) {
+      int col = c % numCols;
+      return (((rows[r % numRows][col >>> 6] >>> col) & 1) == 1) ? alive : dead;
+    }
+    int side = 1 << l;
+    if (side <= 64 && side <= numCols && side <= numRows) {
+      int col = c % numCols;
+      long mask = (side == 64) ? -1L : ((1L << side) - 1) << col;
+      boolean empty = true;
+      for (int i = r; i < r + side && empty; i++) {
+        empty = (rows[i % numRows][col >>> 6] & mask) == 0;
+      }
+      if (empty) {
+        return empty(l);
+      }
+    }
+    int half = side >> 1;
+    return join(build(rows, l - 1, r, c), build(rows, l - 1, r, c + half),
+                build(rows, l - 1, r + half, c), build(rows, l - 1, r + half, c + half));
+  }
+
+  /**
+   *  Copy the Cells of a node into rows of 64 Cells to a long, skipping
+   *  the tiled copies.
+   *  @param node - the node to copy from
+   *  @param rows - the rows to copy into
+   *  @param r - the top row of the node
+   *  @param c - the left column of the node
+   *  @return None
+   */
+  private void fillRows(Node node, long[][] rows, int r, int c) {
+    if (r >= numRows || c >= numCols || node.population == 0) {
+      return;
+    }
+    if (node.level == 0) {
+      rows[r][c >>> 6] |= 1L << c;
+      return;
+    }
+    int half = 1 << (node.level - 1);
+    fillRows(node.nw, rows, r, c);
+    fillRows(node.ne, rows, r, c + half);
+    fillRows(node.sw, rows, r + half, c);
+    fillRows(node.se, rows, r + half, c + half);
+  }
+
+  /**
+   *  Copy the Cells of a node into a grid, skipping the tiled copies.
+   *  @param node - the node to copy from
+   *  @param grid - the grid to copy into
+   *  @param r - the top row of the node
+   *  @param c - the left column of the node
+   *  @return None
+   */
+  private void fill(Node node, int[][] grid, int r, int c) {
+    if (r >= numRows || c >= numCols || node.population == 0) {
+      return;
+    }
+    if (node.level == 0) {
+      grid[r][c] = 1;
+      return;
+    }
+    int half = 1 << (node.level - 1);
+    fill(node.nw, grid, r, c);
+    fill(node.ne, grid, r, c + half);
+    fill(node.sw, grid, r + half, c);
+    fill(node.se, grid, r + half, c + half);
+  }
+
+  /**
+   *  Build a copy of a node with one Cell replaced.
+   *  @param node - the node to copy
+   *  @param r - the row within the node
+   *  @param c - the column within the node
+   *  @param cell - the new leaf for the Cell
+   *  @return the canonical node with the Cell replaced
+   */
+  private Node setCell(Node node, int r, int c, Node cell) {
+    if (node.level == 0) {
+      return cell;
+    }
+    int half = 1 << (node.level - 1);
+    if (r < half && c < half) {
+      return join(setCell(node.nw, r, c, cell), node.ne, node.sw, node.se);
+    } else if (r < half) {
+      return join(node.nw, setCell(node.ne, r, c - half, cell), node.sw, node.se);
+    } else if (c < half) {
+      return join(node.nw, node.ne, setCell(node.sw, r - half, c, cell), node.se);
+    } else {
+      return join(node.nw, node.ne, node.sw, setCell(node.se, r - half, c - half, cell));
+    }
+  }
+
+  /**
+   *  This method returns the centre half of a node.
+   *  @param n - a node of level 2 or more
+   *  @return the node one level down centred on n
+   */
+  private Node centre(Node n) {
+    return join(n.nw.se, n.ne.sw, n.sw.ne, n.se.nw);
+  }
+
+  /**
+   *  This method computes the centre half of a node 2^k generations
+   *  later. When k is as large as the node allows, both halves of the
+   *  time are spent in the recursive calls, otherwise the first half
+   *  only takes centres and the time is spent in the second half.
+   *  @param n - a node of level 2 or more
+   *  @param k - the power of two of the number of generations, at most n.level - 2
+   *  @return the node one level down centred on n, advanced 2^k generations
+   */
+  private Node step(Node n, int k) {
+    if (n.population == 0) {
+      return empty(n.level - 1);
+    }
+    if (n.results != null && n.results[k] != null) {
+      return n.results[k];
+    }
+    Node result;
+    if (n.level == 2) {
+      result = stepBase(n);
+    } else {
+      boolean full = (k == n.level - 2);
+      Node n00 = n.nw;
+      Node n01 = join(n.nw.ne, n.ne.nw, n.nw.se, n.ne.sw);
+      Node n02 = n.ne;
+      Node n10 = join(n.nw.sw, n.nw.se, n.sw.nw, n.sw.ne);
+      Node n11 = centre(n);
+      Node n12 = join(n.ne.sw, n.ne.se, n.se.nw, n.se.ne);
+      Node n20 = n.sw;
+      Node n21 = join(n.sw.ne, n.se.nw, n.sw.se, n.se.sw);
+      Node n22 = n.se;
+      if (full) {
+        n00 = step(n00, k - 1); n01 = step(n01, k - 1); n02 = step(n02, k - 1);
+        n10 = step(n10, k - 1); n11 = step(n11, k - 1); n12 = step(n12, k - 1);
+        n20 = step(n20, k - 1); n21 = step(n21, k - 1); n22 = step(n22, k - 1);
+      } else {
+        n00 = centre(n00); n01 = centre(n01); n02 = centre(n02);
+        n10 = centre(n10); n11 = centre(n11); n12 = centre(n12);
+        n20 = centre(n20); n21 = centre(n21); n22 = centre(n22);
+      }
+      int rest = full ? k - 1 : k;
+      result = join(step(join(n00, n01, n10, n11), rest),
+                    step(join(n01, n02, n11, n12), rest),
+                    step(join(n10, n11, n20, n21), rest),
+                    step(join(n11, n12, n21, n22), rest));
+    }
+    if (n.results == null) {
+      n.results = new Node[n.level - 1];
+    }
+    n.results[k] = result;
+    return result;
+  }
+
+  /**
+   *  This method computes the centre 2x2 of a 4x4 node one generation later.
+   *  @param n - a node of level 2
+   *  @return the level 1 node of the next states of the centre Cells
+   */
+  private Node stepBase(Node n) {
+    int bits = 0;
+    for (int r = 0; r < 4; r++) {
+      for (int c = 0; c < 4; c++) {
+        Node quadrant = (r < 2) ? ((c < 2) ? n.nw : n.ne) : ((c < 2) ? n.sw : n.se);
+        Node leaf = ((r & 1) == 0) ? (((c & 1) == 0) ? quadrant.nw : quadrant.ne)
+                                   : (((c & 1) == 0) ? quadrant.sw : quadrant.se);
+        bits |= (int) leaf.population << (r * 4 + c);
+      }
+    }
+    return join(nextState(bits, 1, 1), nextState(bits, 1, 2),
+                nextState(bits, 2, 1), nextState(bits, 2, 2));
+  }
+
+  /**
+   *  This method applies the rules of the game to one Cell of a 4x4 block.
+   *  @param bits - the 16 Cells of the block, row by row
+   *  @param r - the row of the Cell, 1 or 2
+   *  @param c - the column of the Cell, 1 or 2
+   *  @return the leaf for the next state of the Cell
+   */
+  private Node nextState(int bits, int r, int c) {
+    int numNeighbors = 0;
+    for (int i = r - 1; i <= r + 1; i++) {
+      for (int j = c - 1; j <= c + 1; j++) {
+        if (!(i == r && j == c)) {
+          numNeighbors += (bits >>> (i * 4 + j)) & 1;
+        }
+      }
+    }
+    boolean isAlive = ((bits >>> (r * 4 + c)) & 1) == 1;
+    return (numNeighbors == 3 || (isAlive && numNeighbors == 2)) ? alive : dead;
+  }
+
+  /**
+   *  Drop every node the grid no longer reaches once the node table is
+   *  over budget. Remembered results are forgotten too, since they may
+   *  point at dropped nodes and would keep them from being freed.
+   *  @param None
+   *  @return None
+   */
+  private void collectIfOverBudget() {
+    if (nodes.size() <= maxNodes) {
+      return;
+    }
+    HashMap<Node, Node> live = new HashMap<Node, Node>();
+    keep(root, live);
+    nodes = live;
+    emptyNodes.clear();
+  }
+
+  /**
+   *  Add a node and everything below it to a node table.
+   *  @param node - the node to keep
+   *  @param live - the table of nodes being kept
+   *  @return None
+   */
+  private void keep(Node node, HashMap<Node, Node> live) {
+    if (node.level == 0 || live.containsKey(node)) {
+      return;
+    }
+    node.results = null;
+    live.put(node, node);
+    keep(node.nw, live);
+    keep(node.ne, live);
+    keep(node.sw, live);
+    keep(node.se, live);
+  }
+
+
+// ============================================================================
+
+
+  static class Node {
+
+    final Node nw, ne, sw, se;
+    final int level;
+    final long population;
+    final int hash;
+    Node[] results;
+
+    /**
+     *  Constructor for a leaf, which is a single Cell.
+     *  @param state - 1 if the Cell is alive, 0 if dead
+     */
+    Node(int state) {
+      this.nw = null; this.ne = null; this.sw = null; this.se = null;
+      this.level = 0;
+      this.population = state;
+      this.hash = state;
+    }
+
+    /**
+     *  Constructor for a node made of four quadrants of the same level.
+     *  @param nw - the north west quadrant
+     *  @param ne - the north east quadrant
+     *  @param sw - the south west quadrant
+     *  @param se - the south east quadrant
+     */
+    Node(Node nw, Node ne, Node sw, Node se) {
+      this.nw = nw; this.ne = ne; this.sw = sw; this.se = se;
+      this.level = nw.level + 1;
+      this.population = addCapped(addCapped(nw.population, ne.population),
+                                  addCapped(sw.population, se.population));
+      int h = System.identityHashCode(nw);
+      h = h * 31 + System.identityHashCode(ne);
+      h = h * 31 + System.identityHashCode(sw);
+      h = h * 31 + System.identityHashCode(se);
+      this.hash = h;
+    }
+
+    /**
+     *  Add two populations, stopping at the largest long. Tiled nodes
+     *  for long jumps can hold more Cells than a long can count.
+     *  @param a - the first population
+     *  @param b - the second population
+     *  @return a + b, or Long.MAX_VALUE if that overflows
+     */
+    static long addCapped(long a, long b) {
+      long sum = a + b;
+      return (sum < 0) ? Long.MAX_VALUE : sum;
+    }
+
+    /**
+     *  Nodes are equal when they have the very same quadrants.
+     *  @param o - the object to compare to
+     *  @return true if o is a node with identical quadrants
+     */
+    public boolean equals(Object o) {
+      if (!(o instanceof Node)) return false;
+      Node n = (Node) o;
+      return level == n.level && nw == n.nw && ne == n.ne && sw == n.sw && se == n.se;
+    }
+
+    /**
+     *  @param None
+     *  @return the hash of the identities of the quadrants
+     */
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
@@ -0,0 +1,312 @@
+/**
+ *  @author Chris Turgeon
+ *  @version 1.0
+ */
+
+package code.driver;
+import java.util.Arrays;
+import java.util.Scanner;
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+
+public abstract class LifeEngine {
+
+  public static final String[] ENGINES = { "standard", "doublebuffered", "halo", "vector", "parallel",
+                                           "bitpacked", "sparse", "unbounded", "hashlife" };
+
+  // The engines whose whole state is their toroidal grid, so that any
+  // tick can be rebuilt from a stored grid on any of them. Unbounded
+  // keeps Cells outside its window, which a grid cannot hold.
+  public static final String[] GRID_ENGINES = { "standard", "doublebuffered", "halo", "vector", "parallel",
+                                                "bitpacked", "sparse", "hashlife" };
+
+  protected int numRows;
+  protected int numCols;
+
+  // The Cells which flipped in the last generation played, for
+  // engines that record them while change tracking is on
+  protected boolean trackChanges;
+  private int[] changes = new int[64];
+  private int numChanges;
+  private boolean changesKnown;
+
+  /**
+   *  Construct an engine for a toroidal grid with a number of rows and columns
+   *  @param numRows - the number of rows in the grid
+   *  @param numCols - the number of columns in the grid
+   */
+  public LifeEngine(int numRows, int numCols) {
+    this.numRows = numRows;
+    this.numCols = numCols;
+  }
+
+  /**
+   *  Build an engine by name. The GRID_ENGINES all produce the same
+   *  generations on a toroidal grid and only differ in storage and
+   *  speed. The unbounded engine has no edges, so patterns that leave
+   *  its window carry on outside it instead of wrapping around.
+   *  @param engine - the name of the engine, such as "standard" or "bitpacked"
+   *  @param numRows - the number of rows in the grid
+   *  @param numCols - the number of columns in the grid
+   *  @return a new engine with an empty grid
+   *  @exception IllegalArgumentException is thrown if engine is not a known name
+   */
+  public static LifeEngine create(String engine, int numRows, int numCols) {
+    return create(engine, numRows, numCols, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   *  Build an engine by name, giving multithreaded engines a thread count.
+   *  @param engine - the name of the engine, such as "standard" or "parallel"
+   *  @param numRows - the number of rows in the grid
+   *  @param numCols - the number of columns in the grid
+   *  @param threads - the number of threads for engines that use them
+   *  @return a new engine with an empty grid
+   *  @exception IllegalArgumentException is thrown if engine is not a known name
+   */
+  public static LifeEngine create(String engine, int numRows, int numCols, int threads) {
+    switch (engine) {
+      case "standard":
+        return new GameOfLife(numRows, numCols);
+      case "doublebuffered":
+        return new GameOfLife(numRows, numCols, true);
+      case "halo":
+        return new HaloGameOfLife(numRows, numCols);
+      case "vector":
+        return new VectorGameOfLife(numRows, numCols);
+      case "parallel":
+        return new ParallelGameOfLife(numRows, numCols, threads);
+      case "bitpacked":
+        return new BitPackedGameOfLife(numRows, numCols);
+      case "sparse":
+        return new SparseGameOfLife(numRows, numCols);
+      case "unbounded":
+        return new UnboundedGameOfLife(numRows, numCols);
+      case "hashlife":
+        return new HashLifeGameOfLife(numRows, numCols);
+      default:
+        throw new IllegalArgumentException("Unknown engine: " + engine);
+    }
+  }
+
+  /**
+   *  This method works out how many Cells along one side an engine needs
+   *  to hold a pattern with its border. HashLife only runs powers of two,
+   *  so it gets the next one up and the extra Cells are left dead.
+   *  @param engine - the name of the engine
+   *  @param cells - the number of Cells the pattern and its border span
+   *  @return the side of the grid to create
+   */
+  public static int patternSide(String engine, int cells) {
+    if (engine.equals("hashlife")) {
+      return (cells <= 1) ? 1 : Integer.highestOneBit(cells - 1) << 1;
+    }
+    return cells;
+  }
+
+  /**
+   *  Accessor method for the number of rows in the grid.
+   *  @param None
+   *  @return the number of rows
+   */
+  public int getNumRows() {
+    return this.numRows;
+  }
+
+  /**
+   *  Accessor method for the number of columns in the grid.
+   *  @param None
+   *  @return the number of columns
+   */
+  public int getNumCols() {
+    return this.numCols;
+  }
+
+  /**
+   *  Accessor method for the state of a single Cell.
+   *  @param r - the row location
+   *  @param c - the column location
+   *  @return 1 if the Cell is alive, 0 if dead
+   */
+  public abstract int getCell(int r, int c);
+
+  /**
+   *  Set the state of a single Cell.
+   *  @param r - the row location
+   *  @param c - the column location
+   *  @param state - 1 to make the Cell alive, 0 to kill it
+   *  @return None
+   */
+  public abstract void setCell(int r, int c, int state);
+
+  /**
+   *  Run the game for a number of generations.
+   *  @param stepCount - the number of steps to run the game for
+   *  @return None
+   */
+  public abstract void play(int stepCount);
+
+  /**
+   *  Turn change tracking on or off. While it is on, engines that can
+   *  cheaply tell which Cells flipped record them for getChanges.
+   *  @param enabled - true to record the Cells that flip
+   *  @return None
+   */
+  public void setChangeTracking(boolean enabled) {
+    this.trackChanges = enabled;
+    this.changesKnown = false;
+  }
+
+  /**
+   *  This method returns the Cells which flipped in the last generation
+   *  played. It lets a display redraw only those Cells.
+   *  @param None
+   *  @return the indices r * numCols + c of the Cells, or null if the
+   *          engine did not record them
+   */
+  public int[] getChanges() {
+    return changesKnown ? Arrays.copyOf(changes, numChanges) : null;
+  }
+
+  /**
+   *  Start recording the changes of a new generation.
+   *  @param None
+   *  @return None
+   */
+  protected void clearChanges() {
+    numChanges = 0;
+    changesKnown = true;
+  }
+
+  /**
+   *  Record that a Cell flipped in the generation being played.
+   *  @param cell - the index r * numCols + c of the Cell
+   *  @return None
+   */
+  protected void recordChange(int cell) {
+    if (numChanges == changes.length) {
+      changes = Arrays.copyOf(changes, changes.length * 2);
+    }
+    changes[numChanges++] = cell;
+  }
+
+  /**
+   *  This method loads in a new grid and replaces the current
+   *  one with the new one. It exits the program if an invalid
+   *  grid is supplied. Only call when sure that newGrid has same
+   *  dimensions as the engine's current grid.
+   *  @param newGrid - the new 2D grid of ints replacing the existing one
+   *  @return None
+   */
+  public void replaceGrid(int[][] newGrid) {
+    try {
+      for (int r = 0; r < numRows; r++) {
+        for (int c = 0; c < numCols; c++) {
+          setCell(r, c, newGrid[r][c]);
+        }
+      }
+    } catch(Exception e) {
+      e.printStackTrace();
+      System.err.format("Likely invalid grid dimensions");
+      System.exit(1);
+    }
+  }
+
+  /**
+   *  This method returns the grid as 1s and 0s.
+   *  @param None
+   *  @return a 2D array of ints
+   */
+  public int[][] getGrid() {
+    int[][] retGrid = new int[numRows][numCols];
+    for (int r = 0; r < numRows; r++) {
+      for (int c = 0; c < numCols; c++) {
+        retGrid[r][c] = getCell(r, c);
+      }
+    }
+    return retGrid;
+  }
+
+  /**
+   *  Copy a row of Cells out 64 to a long, where column c is bit
+   *  (c % 64) of word (c / 64). Bits past the last column are zero.
+   *  @param r - the row to copy
+   *  @param bits - at least (numCols + 63) / 64 words to copy it into
+   *  @return None
+   */
+  public void getRow(int r, long[] bits) {
+    Arrays.fill(bits, 0, (numCols + 63) >>> 6, 0L);
+    for (int c = 0; c < numCols; c++) {
+      bits[c >>> 6] |= (long) getCell(r, c) << c;
+    }
+  }
+
+  /**
+   *  Set a whole row of Cells from 64 Cells to a long, where column c
+   *  is bit (c % 64) of word (c / 64). Bits past the last column are
+   *  ignored.
+   *  @param r - the row to set
+   *  @param bits - at least (numCols + 63) / 64 words holding the row
+   *  @return None
+   */
+  public void setRow(int r, long[] bits) {
+    for (int c = 0; c < numCols; c++) {
+      setCell(r, c, (int) (bits[c >>> 6] >>> c) & 1);
+    }
+  }
+
+  /**
+   *  This method takes in a Scanner object which then reads in the
+   *  states of the Cells in the game from a text file. It adds the state
+   *  of the cell to the game grid.
+   *  @param sc - a Scanner object reading from a text file
+   */
+  public void populate(Scanner sc) {
+    for (int r = 0; r < numRows; r++) {
+      for (int c = 0; c < numCols; c++) {
+        char digit = sc.next().charAt(0);
+        if (digit == '0' || digit == '1') {
+          setCell(r, c, Character.getNumericValue(digit));
+        }
+      }
+    }
+  }
+
+  /**
+   *  This method loops through the grid and outputs the result.
+   *  to a text file. It is formatted to look like a grid.
+   *  @param outGrid - the grid to be printed
+   *  @param tick - the current tick of the game
+   *  @param outputFile - the output file to write contents to
+   *  @throws IOException - throws IOException if outputting fails
+   */
+  public void print(int[][] outGrid, int tick, String outputFile) throws IOException {
+    try {
+    String tickStr = Integer.toString(tick);
+    outputFile = outputFile + tick + ".txt";
+    BufferedWriter writer = new BufferedWriter(new FileWriter(outputFile));
+
+    StringBuilder border = new StringBuilder();
+    int numChars = numCols*2 + 3;
+    for (int i = 0; i < numChars; i++) {
+      border.append('-');
+    }
+    // Print out the entire grid
+    String strBorder = border.toString();
+    writer.write(strBorder + "\n");
+    for (int r = 0; r < numRows; r++) {
+      writer.write("|");
+      for (int c = 0; c < numCols; c++) {
+        String str = String.format(" %d", outGrid[r][c]);
+        writer.write(str);
+      }
+      writer.write(" |\n");
+    }
+    writer.write(border + "\n");
+    writer.close();
+  } catch(Exception e) {
+    e.printStackTrace();
+  }
+  }
+}
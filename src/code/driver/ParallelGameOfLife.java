@@ -0,0 +1,103 @@
+/**
+ *  @author Chris Turgeon
+ *  @version 1.0
+ */
+
+package code.driver;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class ParallelGameOfLife extends HaloGameOfLife {
+
+  private static final int MIN_BAND_ROWS = 8;
+  private static final int BANDS_PER_THREAD = 4;
+
+  // One pool for each thread count, shared by every engine made with
+  // it, so dropping an engine never leaves its threads running
+  private static final ConcurrentHashMap<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<Integer, ForkJoinPool>();
+
+  private ForkJoinPool pool;
+  private int bandRows;
+
+  /**
+   *  Construct a grid whose generations are computed by a pool of
+   *  threads, each one working on a band of rows. Engines with the same
+   *  number of threads share a pool.
+   *  @param numRows - the number of rows in the grid
+   *  @param numCols - the number of columns in the grid
+   *  @param threads - the number of threads to compute with
+   */
+  public ParallelGameOfLife(int numRows, int numCols, int threads) {
+    this(numRows, numCols, POOLS.computeIfAbsent(threads, ForkJoinPool::new));
+  }
+
+  /**
+   *  Construct a grid whose generations are computed on the given pool.
+   *  @param numRows - the number of rows in the grid
+   *  @param numCols - the number of columns in the grid
+   *  @param pool - the pool to run the row bands on
+   */
+  public ParallelGameOfLife(int numRows, int numCols, ForkJoinPool pool) {
+    super(numRows, numCols);
+    this.pool = pool;
+    int bands = pool.getParallelism() * BANDS_PER_THREAD;
+    this.bandRows = Math.max(MIN_BAND_ROWS, (numRows + bands - 1) / bands);
+  }
+
+  /**
+   *  Accessor method for the number of threads stepping the grid.
+   *  @param None
+   *  @return the parallelism of the pool
+   */
+  public int getThreadCount() {
+    return this.pool.getParallelism();
+  }
+
+  /**
+   *  Compute the next state of every Cell in the grid. The bands only
+   *  read the current generation and each writes its own rows of the
+   *  next one, so the result does not depend on the thread count.
+   *  Returning from invoke is the barrier before the arrays are swapped.
+   *  @param None
+   *  @return None
+   */
+  protected void computeGeneration() {
+    pool.invoke(new Band(1, numRows));
+  }
+
+
+// ============================================================================
+
+
+  class Band extends RecursiveAction {
+
+    private int firstRow;
+    private int lastRow;
+
+    /**
+     *  Constructor for a task computing the stored rows firstRow to lastRow.
+     *  @param firstRow - the first stored row of the band
+     *  @param lastRow - the last stored row of the band
+     */
+    Band(int firstRow, int lastRow) {
+      this.firstRow = firstRow;
+      this.lastRow = lastRow;
+    }
+
+    /**
+     *  Compute the band directly if it is small enough, otherwise
+     *  split it in half and compute both halves in parallel.
+     *  @param None
+     *  @return None
+     */
+    protected void compute() {
+      if (lastRow - firstRow < bandRows) {
+        computeRows(firstRow, lastRow);
+      } else {
+        int middle = (firstRow + lastRow) >>> 1;
+        invokeAll(new Band(firstRow, middle), new Band(middle + 1, lastRow));
+      }
+    }
+  }
+}
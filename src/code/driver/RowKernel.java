@@ -0,0 +1,22 @@
+/**
+ *  @author Chris Turgeon
+ *  @version 1.0
+ */
+
+package code.driver;
+
+public interface RowKernel {
+
+  /**
+   *  Compute the next state of the Cells in a band of rows of a halo
+   *  padded grid, as laid out by HaloGameOfLife.
+   *  @param src - the current generation, including its refreshed border
+   *  @param dst - the array to write the next generation into
+   *  @param stride - the length of a stored row, numCols + 2
+   *  @param numCols - the number of columns in the grid
+   *  @param firstRow - the first stored row to compute
+   *  @param lastRow - the last stored row to compute
+   *  @return None
+   */
+  void computeRows(byte[] src, byte[] dst, int stride, int numCols, int firstRow, int lastRow);
+}
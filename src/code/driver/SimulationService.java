@@ -0,0 +1,279 @@
+/**
+ *  @author Chris Turgeon
+ *  @version 1.0
+ */
+
+package code.driver;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+public class SimulationService {
+
+  private static final int QUEUE_CAPACITY = 4;
+
+  private ExecutorService worker;
+  private ArrayBlockingQueue<Generation> queue = new ArrayBlockingQueue<Generation>(QUEUE_CAPACITY);
+  private volatile boolean running;
+  private volatile boolean cancelled;
+  private volatile long done;
+  private volatile long total;
+  private volatile String status;
+  private volatile int lastTick = -1;
+
+  /**
+   *  Construct a service which runs one simulation task at a time on
+   *  its own daemon thread. Tasks hand finished generations to the
+   *  display through a small queue which the display polls.
+   */
+  public SimulationService() {
+    this.worker = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "simulation");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   *  Start a task on the worker thread. Only one task runs at a time,
+   *  and whatever the task works on must be left alone by other threads
+   *  until it is done.
+   *  @param task - the work to run
+   *  @param whenDone - called on the worker thread once the task ends, with
+   *                    the exception it threw or null
+   *  @return None
+   *  @exception IllegalStateException is thrown if a task is already running
+   */
+  public synchronized void submit(Task task, Consumer<Exception> whenDone) {
+    if (running) {
+      throw new IllegalStateException("A simulation is already running");
+    }
+    running = true;
+    cancelled = false;
+    done = 0;
+    total = 0;
+    status = null;
+    lastTick = -1;
+    worker.execute(() -> {
+      Exception error = null;
+      try {
+        task.run(this);
+      } catch(Exception e) {
+        error = e;
+      }
+      try {
+        whenDone.accept(error);
+      } finally {
+        running = false;
+      }
+    });
+  }
+
+  /**
+   *  Accessor method for whether a task is running.
+   *  @param None
+   *  @return true if a task was submitted and has not ended
+   */
+  public boolean isRunning() {
+    return this.running;
+  }
+
+  /**
+   *  Ask the running task to stop at its next chance.
+   *  @param None
+   *  @return None
+   */
+  public void cancel() {
+    this.cancelled = true;
+  }
+
+  /**
+   *  Cancel the running task and stop the worker thread, waiting for
+   *  the task to notice and finish so whatever it worked on can be
+   *  read again. Tasks check isCancelled often, so this is short.
+   *  @param None
+   *  @return None
+   */
+  public void shutdown() {
+    cancel();
+    worker.shutdown();
+    try {
+      worker.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    } catch(InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   *  Accessor method for how far the running task has got.
+   *  @param None
+   *  @return a fraction from 0 to 1, or -1 if the task has not said
+   */
+  public double getProgress() {
+    long total = this.total;
+    return (total <= 0) ? -1 : Math.min(1.0, (double) this.done / total);
+  }
+
+  /**
+   *  Accessor method for what the running task last said it is doing.
+   *  @param None
+   *  @return a short line of text, or null if the task has not said
+   */
+  public String getStatus() {
+    return this.status;
+  }
+
+  /**
+   *  Take the oldest generation waiting to be shown.
+   *  @param None
+   *  @return the generation, or null if there is none
+   */
+  public Generation poll() {
+    return queue.poll();
+  }
+
+  /**
+   *  Called by tasks to see whether they should stop.
+   *  @param None
+   *  @return true once cancel has been called
+   */
+  public boolean isCancelled() {
+    return this.cancelled;
+  }
+
+  /**
+   *  Called by tasks to report how much of their work is done.
+   *  @param done - the units of work done so far
+   *  @param total - the units of work in the whole task
+   *  @return None
+   */
+  public void setProgress(long done, long total) {
+    this.done = done;
+    this.total = total;
+  }
+
+  /**
+   *  Called by tasks to describe what they are doing, such as how fast
+   *  they are going.
+   *  @param status - a short line of text, or null for none
+   *  @return None
+   */
+  public void setStatus(String status) {
+    this.status = status;
+  }
+
+  /**
+   *  Called by tasks before building a generation to publish, since
+   *  there is no point building one the queue has no room for.
+   *  @param None
+   *  @return true if a published generation would be kept
+   */
+  public boolean wantsGeneration() {
+    return queue.remainingCapacity() > 0;
+  }
+
+  /**
+   *  Called by tasks to hand a generation to the display. If the display
+   *  is behind and the queue is full the generation is dropped, so the
+   *  task never waits on the display.
+   *  @param tick - the tick of the generation
+   *  @param grid - the grid of that tick
+   *  @param changes - the Cells which flipped going into that tick, or null
+   *  @return true if the generation was queued
+   */
+  public boolean publish(int tick, int[][] grid, int[] changes) {
+    return queue.offer(new Generation(tick, grid, changes));
+  }
+
+  /**
+   *  Accessor method for the tick the task ended on. It is known as soon
+   *  as the task ends, while its generation may still be waiting for
+   *  the display.
+   *  @param None
+   *  @return the tick given to publishLast, or -1 if the task has not called it
+   */
+  public int getLastTick() {
+    return this.lastTick;
+  }
+
+  /**
+   *  Called by tasks to hand the generation they end on to the display.
+   *  It is always kept, dropping the oldest queued generation if needed.
+   *  @param tick - the tick of the generation
+   *  @param grid - the grid of that tick
+   *  @param changes - the Cells which flipped going into that tick, or null
+   *  @return None
+   */
+  public void publishLast(int tick, int[][] grid, int[] changes) {
+    lastTick = tick;
+    Generation generation = new Generation(tick, grid, changes);
+    while (!queue.offer(generation)) {
+      queue.poll();
+    }
+  }
+
+
+// ============================================================================
+
+
+  public interface Task {
+
+    /**
+     *  Do the work of the task on the worker thread, checking
+     *  isCancelled and reporting progress through the service.
+     *  @param service - the service running the task
+     *  @return None
+     *  @exception Exception is passed on to the task's whenDone
+     */
+    void run(SimulationService service) throws Exception;
+  }
+
+
+// ============================================================================
+
+
+  public static class Generation {
+
+    private int tick;
+    private int[][] grid;
+    private int[] changes;
+
+    /**
+     *  Constructor for a finished generation on its way to the display.
+     *  @param tick - the tick of the generation
+     *  @param grid - the grid of that tick
+     *  @param changes - the Cells which flipped going into that tick, or null
+     */
+    Generation(int tick, int[][] grid, int[] changes) {
+      this.tick = tick;
+      this.grid = grid;
+      this.changes = changes;
+    }
+
+    /**
+     *  @param None
+     *  @return the tick of the generation
+     */
+    public int getTick() {
+      return this.tick;
+    }
+
+    /**
+     *  @param None
+     *  @return the grid of the generation
+     */
+    public int[][] getGrid() {
+      return this.grid;
+    }
+
+    /**
+     *  @param None
+     *  @return the Cells which flipped going into this tick, or null if not known
+     */
+    public int[] getChanges() {
+      return this.changes;
+    }
+  }
+}
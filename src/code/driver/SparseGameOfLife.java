@@ -0,0 +1,204 @@
+/**
+ *  @author Chris Turgeon
+ *  @version 1.0
+ */
+
+package code.driver;
+import java.util.Arrays;
+
+public class SparseGameOfLife extends LifeEngine {
+
+  // Next state of a Cell, indexed by (state << 4) | numNeighbors
+  private static final byte[] RULE = new byte[32];
+  static {
+    RULE[3] = 1;
+    RULE[16 + 2] = 1;
+    RULE[16 + 3] = 1;
+  }
+
+  private byte[] cells;
+  private byte[] neighbors;
+  private int[] rowAbove, rowBelow, colLeft, colRight;
+
+  // Cells which flipped since the last generation was computed
+  private int[] changed;
+  private boolean[] pending;
+  private int numChanged;
+
+  // Cells to evaluate in the current generation, marked with its stamp
+  private int[] active;
+  private int[] marks;
+  private int stamp;
+  private int numActive;
+
+  /**
+   *  Construct a grid which keeps a count of live neighbors for every
+   *  Cell. Each generation only looks at the Cells that flipped in the
+   *  previous one and their neighbors, since nothing else can change.
+   *  @param numRows - the number of rows in the grid
+   *  @param numCols - the number of columns in the grid
+   */
+  public SparseGameOfLife(int numRows, int numCols) {
+    super(numRows, numCols);
+    int numCells = numRows * numCols;
+    this.cells = new byte[numCells];
+    this.neighbors = new byte[numCells];
+    this.changed = new int[numCells];
+    this.pending = new boolean[numCells];
+    this.active = new int[numCells];
+    this.marks = new int[numCells];
+
+    // Offsets of the wrapped neighboring rows and columns
+    this.rowAbove = new int[numRows];
+    this.rowBelow = new int[numRows];
+    for (int r = 0; r < numRows; r++) {
+      rowAbove[r] = ((r + numRows - 1) % numRows) * numCols;
+      rowBelow[r] = ((r + 1) % numRows) * numCols;
+    }
+    this.colLeft = new int[numCols];
+    this.colRight = new int[numCols];
+    for (int c = 0; c < numCols; c++) {
+      colLeft[c] = (c + numCols - 1) % numCols;
+      colRight[c] = (c + 1) % numCols;
+    }
+  }
+
+  /**
+   *  Accessor method for the number of Cells the last generation
+   *  evaluated. Every other Cell in the grid was skipped.
+   *  @param None
+   *  @return the number of active Cells in the last generation
+   */
+  public int getActiveCellCount() {
+    return this.numActive;
+  }
+
+  /**
+   *  Accessor method for the state of a single Cell.
+   *  @param r - the row location
+   *  @param c - the column location
+   *  @return 1 if the Cell is alive, 0 if dead
+   */
+  public int getCell(int r, int c) {
+    return cells[r * numCols + c];
+  }
+
+  /**
+   *  Set the state of a single Cell.
+   *  @param r - the row location
+   *  @param c - the column location
+   *  @param state - 1 to make the Cell alive, 0 to kill it
+   *  @return None
+   */
+  public void setCell(int r, int c, int state) {
+    int i = r * numCols + c;
+    if (cells[i] != state) {
+      flip(i);
+      markChanged(i);
+    }
+  }
+
+  /**
+   *  This method runs the game for a number of generations. It gathers
+   *  the Cells which flipped last generation together with their
+   *  neighbors, works out which of those flip next, and only then
+   *  flips them so every decision sees the same generation.
+   *  @param stepCount - the number of steps to run the game for
+   *  @return None
+   */
+  public void play(int stepCount) {
+    for (int i = 0; i < stepCount; i++) {
+      nextStamp();
+      numActive = 0;
+      for (int j = 0; j < numChanged; j++) {
+        int cell = changed[j];
+        pending[cell] = false;
+        int r = cell / numCols;
+        int c = cell - r * numCols;
+        int above = rowAbove[r], row = r * numCols, below = rowBelow[r];
+        int left = colLeft[c], right = colRight[c];
+        activate(above + left); activate(above + c); activate(above + right);
+        activate(row + left);   activate(cell);      activate(row + right);
+        activate(below + left); activate(below + c); activate(below + right);
+      }
+
+      // Reuse the changed list for the Cells that flip this generation
+      numChanged = 0;
+      for (int j = 0; j < numActive; j++) {
+        int cell = active[j];
+        if (RULE[(cells[cell] << 4) | neighbors[cell]] != cells[cell]) {
+          changed[numChanged++] = cell;
+        }
+      }
+      for (int j = 0; j < numChanged; j++) {
+        flip(changed[j]);
+        pending[changed[j]] = true;
+      }
+    }
+  }
+
+  /**
+   *  This method returns the Cells which flipped in the last generation
+   *  played, which the engine always keeps track of.
+   *  @param None
+   *  @return the indices r * numCols + c of the Cells
+   */
+  public int[] getChanges() {
+    return Arrays.copyOf(changed, numChanged);
+  }
+
+  /**
+   *  Flip a Cell and update the neighbor counts around it.
+   *  @param cell - the index of the Cell
+   *  @return None
+   */
+  private void flip(int cell) {
+    int delta = (cells[cell] == 0) ? 1 : -1;
+    cells[cell] ^= 1;
+    int r = cell / numCols;
+    int c = cell - r * numCols;
+    int above = rowAbove[r], row = r * numCols, below = rowBelow[r];
+    int left = colLeft[c], right = colRight[c];
+    neighbors[above + left] += delta; neighbors[above + c] += delta; neighbors[above + right] += delta;
+    neighbors[row + left] += delta;                                 neighbors[row + right] += delta;
+    neighbors[below + left] += delta; neighbors[below + c] += delta; neighbors[below + right] += delta;
+  }
+
+  /**
+   *  Record that a Cell flipped outside of play.
+   *  @param cell - the index of the Cell
+   *  @return None
+   */
+  private void markChanged(int cell) {
+    if (!pending[cell]) {
+      pending[cell] = true;
+      changed[numChanged++] = cell;
+    }
+  }
+
+  /**
+   *  Add a Cell to the active list unless it is already on it.
+   *  @param cell - the index of the Cell
+   *  @return None
+   */
+  private void activate(int cell) {
+    if (marks[cell] != stamp) {
+      marks[cell] = stamp;
+      active[numActive++] = cell;
+    }
+  }
+
+  /**
+   *  Move to a new stamp for marking active Cells, clearing the marks
+   *  in the rare case that the stamp wraps around.
+   *  @param None
+   *  @return None
+   */
+  private void nextStamp() {
+    stamp++;
+    if (stamp == 0) {
+      Arrays.fill(marks, 0);
+      stamp = 1;
+    }
+  }
+}
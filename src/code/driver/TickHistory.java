@@ -0,0 +1,511 @@
+/**
+ *  @author Chris Turgeon
+ *  @version 1.0
+ */
+
+package code.driver;
+import code.io.VarInts;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+public class TickHistory {
+
+  private static final int DEFAULT_KEYFRAME_INTERVAL = 32;
+  private static final int DELTA_OVERHEAD = 16;
+  private static final int SEGMENT_OVERHEAD = 64;
+  private static final int SIMULATE_CHUNK = 1024;
+
+  private int numRows;
+  private int numCols;
+  private int keyframeInterval;
+  private long memoryBudget;
+  private String engine;
+  private TreeMap<Integer, Segment> segments = new TreeMap<Integer, Segment>();
+  private long[] last;
+  private int size;
+  private long bytesUsed;
+
+  private Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+  private Inflater inflater = new Inflater();
+  private byte[] buffer;
+
+  // The last tick rebuilt by simulation, so reading evicted ticks in
+  // order only simulates each of them once
+  private LifeEngine simulator;
+  private int simulatorTick = -1;
+  private BooleanSupplier cancelled = () -> false;
+
+  /**
+   *  Construct an empty history for grids of a fixed size. It may use
+   *  up to a quarter of the heap and recomputes evicted ticks with the
+   *  bit-packed engine.
+   *  @param numRows - the number of rows in every grid
+   *  @param numCols - the number of columns in every grid
+   */
+  public TickHistory(int numRows, int numCols) {
+    this(numRows, numCols, "bitpacked");
+  }
+
+  /**
+   *  Construct an empty history for grids of a fixed size. It may use
+   *  up to a quarter of the heap and recomputes evicted ticks with the
+   *  engine the game runs on.
+   *  @param numRows - the number of rows in every grid
+   *  @param numCols - the number of columns in every grid
+   *  @param engine - the name of the engine to recompute evicted ticks with
+   */
+  public TickHistory(int numRows, int numCols, String engine) {
+    this(numRows, numCols, DEFAULT_KEYFRAME_INTERVAL, Runtime.getRuntime().maxMemory() / 4, engine);
+  }
+
+  /**
+   *  Construct an empty history for grids of a fixed size. Every
+   *  keyframeInterval ticks a full grid is kept, bit-packed and then
+   *  deflated, and the ticks in between only keep the Cells that
+   *  flipped. When the history grows past its memory budget the
+   *  deltas of the oldest ticks are evicted first, and then every
+   *  other keyframe, leaving sparser and sparser checkpoints. Evicted
+   *  ticks are recomputed from the closest checkpoint when asked for.
+   *  @param numRows - the number of rows in every grid
+   *  @param numCols - the number of columns in every grid
+   *  @param keyframeInterval - the number of ticks from one keyframe to the next
+   *  @param memoryBudget - roughly how many bytes the history may hold
+   *  @param engine - the name of the engine to recompute evicted ticks with
+   */
+  public TickHistory(int numRows, int numCols, int keyframeInterval, long memoryBudget, String engine) {
+    this.numRows = numRows;
+    this.numCols = numCols;
+    this.keyframeInterval = keyframeInterval;
+    this.memoryBudget = memoryBudget;
+    this.engine = engine;
+    this.buffer = new byte[((numRows * numCols + 63) >>> 6) * 8];
+  }
+
+  /**
+   *  Change the engine evicted ticks are recomputed with, such as when
+   *  the game moves onto another engine.
+   *  @param engine - the name of the engine
+   *  @return None
+   */
+  public void setEngine(String engine) {
+    this.engine = engine;
+    this.simulator = null;
+    this.simulatorTick = -1;
+  }
+
+  /**
+   *  Set what recomputing evicted ticks checks between chunks of
+   *  generations, so that a long recompute can be stopped.
+   *  @param cancelled - returns true once the recompute should stop
+   *  @return None
+   */
+  public void setCancelCheck(BooleanSupplier cancelled) {
+    this.cancelled = cancelled;
+  }
+
+  /**
+   *  Accessor method for the number of ticks stored. They are the
+   *  ticks from 0 up to size() - 1.
+   *  @param None
+   *  @return the number of ticks in the history
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   *  Accessor method for roughly how much memory the history holds.
+   *  @param None
+   *  @return the bytes used by keyframes and deltas
+   */
+  public long getBytesUsed() {
+    return this.bytesUsed;
+  }
+
+  /**
+   *  Accessor method for the number of keyframes still stored.
+   *  @param None
+   *  @return the number of checkpoints ticks can be rebuilt from
+   */
+  public int getCheckpointCount() {
+    return segments.size();
+  }
+
+  /**
+   *  Add the grid of the next tick to the end of the history.
+   *  @param grid - the grid of tick size()
+   *  @return None
+   */
+  public void append(int[][] grid) {
+    appendAt(size, grid);
+  }
+
+  /**
+   *  Add the grid of a tick at or after the end of the history. The
+   *  ticks skipped over are not stored, they are recomputed from the
+   *  checkpoint before them when asked for.
+   *  @param tick - the tick of the grid, at least size()
+   *  @param grid - the grid of that tick
+   *  @return None
+   *  @exception IllegalArgumentException is thrown if the tick is already stored
+   *             or the history is empty and the tick is not 0
+   */
+  public void appendAt(int tick, int[][] grid) {
+    if (tick < size || (size == 0 && tick != 0)) {
+      throw new IllegalArgumentException("Cannot add tick " + tick + " to a history of " + size + " ticks");
+    }
+    long[] packed = pack(grid);
+    Map.Entry<Integer, Segment> lastEntry = segments.lastEntry();
+    if (lastEntry == null || tick != size || lastEntry.getValue().deltas.size() + 1 >= keyframeInterval
+        || lastEntry.getKey() + lastEntry.getValue().deltas.size() != size - 1) {
+      Segment segment = new Segment(compress(packed));
+      segments.put(tick, segment);
+      bytesUsed += segment.getBytes();
+    } else {
+      byte[] delta = encodeDelta(last, packed);
+      lastEntry.getValue().deltas.add(delta);
+      bytesUsed += delta.length + DELTA_OVERHEAD;
+    }
+    last = packed;
+    size = tick + 1;
+    if (bytesUsed > memoryBudget) {
+      evict();
+    }
+  }
+
+  /**
+   *  This method rebuilds the grid of a tick from the closest keyframe
+   *  at or before it, flipping the Cells recorded in each delta and
+   *  simulating any ticks whose deltas were evicted.
+   *  @param tick - a tick from 0 to size() - 1
+   *  @return a 2D array of ints holding the grid of that tick
+   *  @exception IndexOutOfBoundsException is thrown if the tick is not stored
+   *  @exception CancellationException is thrown if the cancel check stops a recompute
+   */
+  public int[][] get(int tick) {
+    return unpack(getPacked(tick));
+  }
+
+  /**
+   *  This method rebuilds a tick like get, without unpacking it.
+   *  @param tick - a tick from 0 to size() - 1
+   *  @return a new array of the Cells 64 to a word, Cell (r, c) at bit r * numCols + c
+   *  @exception IndexOutOfBoundsException is thrown if the tick is not stored
+   *  @exception CancellationException is thrown if the cancel check stops a recompute
+   */
+  public long[] getCells(int tick) {
+    return getPacked(tick);
+  }
+
+  /**
+   *  This method returns the Cells that flipped going into a tick.
+   *  @param tick - a tick from 1 to size() - 1
+   *  @return the indices r * numCols + c of the flipped Cells, or null
+   *          if the change into that tick is not recorded
+   */
+  public int[] getChanges(int tick) {
+    checkTick(tick);
+    Map.Entry<Integer, Segment> entry = segments.floorEntry(tick);
+    int offset = tick - entry.getKey();
+    ArrayList<byte[]> deltas = entry.getValue().deltas;
+    return (offset == 0 || offset > deltas.size()) ? null : decodeDelta(deltas.get(offset - 1));
+  }
+
+  /**
+   *  Drop every tick from newSize onwards.
+   *  @param newSize - the number of ticks to keep
+   *  @return None
+   */
+  public void truncate(int newSize) {
+    if (newSize >= size) {
+      return;
+    }
+    while (!segments.isEmpty() && segments.lastKey() >= newSize) {
+      bytesUsed -= segments.pollLastEntry().getValue().getBytes();
+    }
+    if (simulatorTick >= newSize) {
+      simulatorTick = -1;
+    }
+    if (segments.isEmpty()) {
+      size = 0;
+      last = null;
+      return;
+    }
+    Map.Entry<Integer, Segment> lastEntry = segments.lastEntry();
+    ArrayList<byte[]> deltas = lastEntry.getValue().deltas;
+    while (lastEntry.getKey() + deltas.size() >= newSize) {
+      bytesUsed -= deltas.remove(deltas.size() - 1).length + DELTA_OVERHEAD;
+    }
+    size = newSize;
+    last = null;
+    last = getPacked(newSize - 1);
+  }
+
+  /**
+   *  This method rebuilds the bit-packed grid of a tick.
+   *  @param tick - a tick from 0 to size() - 1
+   *  @return the Cells of that tick, 64 to a word
+   */
+  private long[] getPacked(int tick) {
+    checkTick(tick);
+    if (tick == size - 1 && last != null) {
+      return last.clone();
+    }
+    Map.Entry<Integer, Segment> entry = segments.floorEntry(tick);
+    Segment segment = entry.getValue();
+    int known = Math.min(tick - entry.getKey(), segment.deltas.size());
+
+    // Carry on from the last simulated tick if it is on the way
+    if (known < tick - entry.getKey() && simulatorTick <= tick && simulatorTick > entry.getKey() + known) {
+      return simulate(tick);
+    }
+    long[] packed = decompress(segment.keyframe);
+    for (int i = 0; i < known; i++) {
+      for (int cell : decodeDelta(segment.deltas.get(i))) {
+        packed[cell >>> 6] ^= (1L << cell);
+      }
+    }
+    if (known == tick - entry.getKey()) {
+      return packed;
+    }
+    if (simulator == null) {
+      simulator = LifeEngine.create(engine, numRows, numCols);
+    }
+    simulator.replaceGrid(unpack(packed));
+    simulatorTick = entry.getKey() + known;
+    return simulate(tick);
+  }
+
+  /**
+   *  Run the simulator forward to a tick a chunk at a time, checking
+   *  for cancellation between chunks. HashLife takes the largest power
+   *  of two left as one memoised step, other engines SIMULATE_CHUNK
+   *  generations.
+   *  @param tick - a tick at or after the simulator's tick
+   *  @return the Cells of that tick, 64 to a word
+   *  @exception CancellationException is thrown if the cancel check stops it
+   */
+  private long[] simulate(int tick) {
+    while (simulatorTick < tick) {
+      if (cancelled.getAsBoolean()) {
+        throw new CancellationException("Stopped rebuilding tick " + tick);
+      }
+      int remaining = tick - simulatorTick;
+      if (simulator instanceof HashLifeGameOfLife) {
+        int k = 31 - Integer.numberOfLeadingZeros(remaining);
+        ((HashLifeGameOfLife) simulator).jumpPowerOfTwo(k);
+        simulatorTick += 1 << k;
+      } else {
+        int steps = Math.min(SIMULATE_CHUNK, remaining);
+        simulator.play(steps);
+        simulatorTick += steps;
+      }
+    }
+    return pack(simulator.getGrid());
+  }
+
+  /**
+   *  Drop history until it fits in the memory budget. The newest
+   *  keyframe and its deltas are always kept, as is tick 0.
+   *  @param None
+   *  @return None
+   */
+  private void evict() {
+    // First forget the deltas of the oldest segments
+    Integer newest = segments.lastKey();
+    for (Segment segment : segments.headMap(newest).values()) {
+      if (bytesUsed <= memoryBudget) return;
+      for (byte[] delta : segment.deltas) {
+        bytesUsed -= delta.length + DELTA_OVERHEAD;
+      }
+      segment.deltas.clear();
+    }
+
+    // Then thin out the keyframes, oldest first, one of every two at a time
+    while (bytesUsed > memoryBudget && segments.size() > 2) {
+      Iterator<Map.Entry<Integer, Segment>> it = segments.headMap(newest).entrySet().iterator();
+      it.next(); // Keep the first checkpoint
+      while (it.hasNext() && bytesUsed > memoryBudget) {
+        Map.Entry<Integer, Segment> entry = it.next();
+        bytesUsed -= entry.getValue().getBytes();
+        it.remove();
+        if (it.hasNext()) it.next();
+      }
+    }
+  }
+
+  /**
+   *  @param tick - the tick being asked for
+   *  @return None
+   *  @exception IndexOutOfBoundsException is thrown if the tick is not stored
+   */
+  private void checkTick(int tick) {
+    if (tick < 0 || tick >= size) {
+      throw new IndexOutOfBoundsException("Tick " + tick + " is not in the history of " + size + " ticks");
+    }
+  }
+
+  /**
+   *  This method packs a grid into bits, row by row.
+   *  @param grid - a 2D array of ints holding 1s and 0s
+   *  @return the Cells 64 to a word, Cell (r, c) at bit r * numCols + c
+   */
+  private long[] pack(int[][] grid) {
+    long[] packed = new long[(numRows * numCols + 63) >>> 6];
+    int cell = 0;
+    for (int r = 0; r < numRows; r++) {
+      for (int c = 0; c < numCols; c++, cell++) {
+        if (grid[r][c] == 1) {
+          packed[cell >>> 6] |= (1L << cell);
+        }
+      }
+    }
+    return packed;
+  }
+
+  /**
+   *  This method unpacks bits into a grid.
+   *  @param packed - the Cells 64 to a word
+   *  @return a 2D array of ints holding 1s and 0s
+   */
+  private int[][] unpack(long[] packed) {
+    int[][] grid = new int[numRows][numCols];
+    int cell = 0;
+    for (int r = 0; r < numRows; r++) {
+      for (int c = 0; c < numCols; c++, cell++) {
+        grid[r][c] = (int) (packed[cell >>> 6] >>> cell) & 1;
+      }
+    }
+    return grid;
+  }
+
+  /**
+   *  This method deflates a packed grid, which shrinks the long runs
+   *  of empty or repeating words most boards are made of.
+   *  @param packed - the Cells 64 to a word
+   *  @return the compressed bytes
+   */
+  private byte[] compress(long[] packed) {
+    ByteBuffer.wrap(buffer).asLongBuffer().put(packed);
+    deflater.reset();
+    deflater.setInput(buffer);
+    deflater.finish();
+    byte[] out = new byte[64 + buffer.length / 8];
+    int length = 0;
+    while (!deflater.finished()) {
+      if (length == out.length) {
+        byte[] bigger = new byte[out.length * 2];
+        System.arraycopy(out, 0, bigger, 0, length);
+        out = bigger;
+      }
+      length += deflater.deflate(out, length, out.length - length);
+    }
+    byte[] compressed = new byte[length];
+    System.arraycopy(out, 0, compressed, 0, length);
+    return compressed;
+  }
+
+  /**
+   *  This method inflates a keyframe back into a packed grid.
+   *  @param compressed - the bytes made by compress
+   *  @return the Cells 64 to a word
+   */
+  private long[] decompress(byte[] compressed) {
+    try {
+      inflater.reset();
+      inflater.setInput(compressed);
+      int length = 0;
+      while (length < buffer.length && !inflater.finished()) {
+        length += inflater.inflate(buffer, length, buffer.length - length);
+      }
+    } catch(DataFormatException e) {
+      throw new IllegalStateException("Corrupt keyframe in tick history", e);
+    }
+    long[] packed = new long[buffer.length / 8];
+    ByteBuffer.wrap(buffer).asLongBuffer().get(packed);
+    return packed;
+  }
+
+  /**
+   *  This method lists the Cells which differ between two packed grids,
+   *  as the gaps between their indices written as variable length ints.
+   *  @param before - the earlier grid
+   *  @param after - the later grid
+   *  @return the encoded delta
+   */
+  private static byte[] encodeDelta(long[] before, long[] after) {
+    int count = 0;
+    for (int k = 0; k < after.length; k++) {
+      count += Long.bitCount(before[k] ^ after[k]);
+    }
+    byte[] out = new byte[5 + count * 5];
+    int length = VarInts.write(out, 0, count);
+    int previous = 0;
+    for (int k = 0; k < after.length; k++) {
+      long bits = before[k] ^ after[k];
+      while (bits != 0) {
+        int cell = (k << 6) + Long.numberOfTrailingZeros(bits);
+        length = VarInts.write(out, length, cell - previous);
+        previous = cell;
+        bits &= bits - 1;
+      }
+    }
+    byte[] delta = new byte[length];
+    System.arraycopy(out, 0, delta, 0, length);
+    return delta;
+  }
+
+  /**
+   *  This method reads back the Cells listed in a delta.
+   *  @param delta - the bytes made by encodeDelta
+   *  @return the indices of the Cells that flipped, in increasing order
+   */
+  private static int[] decodeDelta(byte[] delta) {
+    ByteBuffer in = ByteBuffer.wrap(delta);
+    int[] cells = new int[VarInts.read(in)];
+    int cell = 0;
+    for (int i = 0; i < cells.length; i++) {
+      cell += VarInts.read(in);
+      cells[i] = cell;
+    }
+    return cells;
+  }
+
+
+// ============================================================================
+
+
+  static class Segment {
+
+    byte[] keyframe;
+    ArrayList<byte[]> deltas = new ArrayList<byte[]>();
+
+    /**
+     *  Constructor for a keyframe and the deltas of the ticks after it.
+     *  @param keyframe - the compressed grid of the keyframe's tick
+     */
+    Segment(byte[] keyframe) {
+      this.keyframe = keyframe;
+    }
+
+    /**
+     *  @param None
+     *  @return roughly how many bytes the segment holds
+     */
+    long getBytes() {
+      long bytes = keyframe.length + SEGMENT_OVERHEAD;
+      for (byte[] delta : deltas) {
+        bytes += delta.length + DELTA_OVERHEAD;
+      }
+      return bytes;
+    }
+  }
+}
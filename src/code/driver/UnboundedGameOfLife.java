@@ -0,0 +1,427 @@
+/**
+ *  @author Chris Turgeon
+ *  @version 1.0
+ */
+
+package code.driver;
+import java.util.ArrayList;
+
+public class UnboundedGameOfLife extends LifeEngine {
+
+  private static final int CHUNK_BITS = 6;
+  private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+  private ChunkMap chunks = new ChunkMap();
+  private ArrayList<Chunk> working = new ArrayList<Chunk>();
+
+  /**
+   *  Construct a universe with no edges. Cells are stored in 64x64
+   *  chunks that are only allocated where there is life, so patterns
+   *  can grow forever instead of wrapping around. The rows and columns
+   *  given are the window that getGrid and replaceGrid work on.
+   *  @param numRows - the number of rows in the window
+   *  @param numCols - the number of columns in the window
+   */
+  public UnboundedGameOfLife(int numRows, int numCols) {
+    super(numRows, numCols);
+  }
+
+  /**
+   *  Accessor method for the number of chunks being stored.
+   *  @param None
+   *  @return the number of allocated chunks
+   */
+  public int getChunkCount() {
+    return chunks.size();
+  }
+
+  /**
+   *  Accessor method for the live area, the Cells in allocated chunks,
+   *  which is what a generation steps.
+   *  @param None
+   *  @return the number of Cells in the chunks being stored
+   */
+  public long getLiveArea() {
+    return (long) chunks.size() * CHUNK_SIZE * CHUNK_SIZE;
+  }
+
+  /**
+   *  Accessor method for the number of live Cells in the whole universe.
+   *  @param None
+   *  @return the population of the universe
+   */
+  public long getPopulation() {
+    long population = 0;
+    for (int i = 0; i < chunks.capacity(); i++) {
+      Chunk chunk = chunks.valueAt(i);
+      if (chunk != null) {
+        for (int y = 0; y < CHUNK_SIZE; y++) {
+          population += Long.bitCount(chunk.cells[y]);
+        }
+      }
+    }
+    return population;
+  }
+
+  /**
+   *  Accessor method for the state of a single Cell. Any coordinates
+   *  are allowed, including ones outside the window.
+   *  @param r - the row location
+   *  @param c - the column location
+   *  @return 1 if the Cell is alive, 0 if dead
+   */
+  public int getCell(int r, int c) {
+    Chunk chunk = chunks.get(r >> CHUNK_BITS, c >> CHUNK_BITS);
+    if (chunk == null) {
+      return 0;
+    }
+    return (int) (chunk.cells[r & (CHUNK_SIZE - 1)] >>> c) & 1;
+  }
+
+  /**
+   *  Set the state of a single Cell. Any coordinates are allowed,
+   *  including ones outside the window.
+   *  @param r - the row location
+   *  @param c - the column location
+   *  @param state - 1 to make the Cell alive, 0 to kill it
+   *  @return None
+   */
+  public void setCell(int r, int c, int state) {
+    Chunk chunk = chunks.get(r >> CHUNK_BITS, c >> CHUNK_BITS);
+    if (chunk == null) {
+      if (state == 0) return;
+      chunk = new Chunk(r >> CHUNK_BITS, c >> CHUNK_BITS);
+      chunks.put(chunk);
+    }
+    if (state == 1) {
+      chunk.cells[r & (CHUNK_SIZE - 1)] |= (1L << c);
+    } else {
+      chunk.cells[r & (CHUNK_SIZE - 1)] &= ~(1L << c);
+    }
+  }
+
+  /**
+   *  Set a whole row of the window from 64 Cells to a long. Each word is
+   *  one row of a chunk, so chunks are only allocated for words with live
+   *  Cells and a wide, sparse pattern loads without touching each Cell.
+   *  @param r - the row to set
+   *  @param bits - at least (numCols + 63) / 64 words holding the row
+   *  @return None
+   */
+  public void setRow(int r, long[] bits) {
+    int words = (numCols + 63) >>> 6;
+    int y = r & (CHUNK_SIZE - 1);
+    for (int k = 0; k < words; k++) {
+      long window = (k == words - 1 && (numCols & 63) != 0) ? (1L << numCols) - 1 : -1L;
+      long word = bits[k] & window;
+      Chunk chunk = chunks.get(r >> CHUNK_BITS, k);
+      if (chunk == null) {
+        if (word == 0) continue;
+        chunk = new Chunk(r >> CHUNK_BITS, k);
+        chunks.put(chunk);
+      }
+      chunk.cells[y] = (chunk.cells[y] & ~window) | word;
+    }
+  }
+
+  /**
+   *  This method empties the universe and loads a new grid into the window.
+   *  @param newGrid - the new 2D grid of ints replacing the existing one
+   *  @return None
+   */
+  public void replaceGrid(int[][] newGrid) {
+    chunks = new ChunkMap();
+    super.replaceGrid(newGrid);
+  }
+
+  /**
+   *  This method runs the game for a number of generations. Chunks are
+   *  first added next to any live Cell on a chunk edge, then every chunk
+   *  is stepped with the same bitwise adder as BitPackedGameOfLife, and
+   *  finally the chunks that are left empty are freed.
+   *  @param stepCount - the number of steps to run the game for
+   *  @return None
+   */
+  public void play(int stepCount) {
+    for (int i = 0; i < stepCount; i++) {
+      working.clear();
+      for (int k = 0; k < chunks.capacity(); k++) {
+        if (chunks.valueAt(k) != null) working.add(chunks.valueAt(k));
+      }
+      int numOccupied = working.size();
+      for (int k = 0; k < numOccupied; k++) {
+        growAround(working.get(k));
+      }
+      for (int k = 0; k < working.size(); k++) {
+        stepChunk(working.get(k));
+      }
+      for (int k = 0; k < working.size(); k++) {
+        Chunk chunk = working.get(k);
+        long[] temp = chunk.cells;
+        chunk.cells = chunk.next;
+        chunk.next = temp;
+        if (chunk.isEmpty()) {
+          chunks.remove(chunk.cy, chunk.cx);
+        }
+      }
+    }
+  }
+
+  /**
+   *  Make sure a chunk exists on every side where life could spread to.
+   *  New chunks are added to the working list so they are stepped too.
+   *  @param chunk - an occupied chunk
+   *  @return None
+   */
+  private void growAround(Chunk chunk) {
+    long[] cells = chunk.cells;
+    long top = cells[0];
+    long bottom = cells[CHUNK_SIZE - 1];
+    long left = 0;
+    long right = 0;
+    for (int y = 0; y < CHUNK_SIZE; y++) {
+      left |= cells[y] & 1;
+      right |= cells[y] >>> 63;
+    }
+    if (top != 0)    ensure(chunk.cy - 1, chunk.cx);
+    if (bottom != 0) ensure(chunk.cy + 1, chunk.cx);
+    if (left != 0)   ensure(chunk.cy, chunk.cx - 1);
+    if (right != 0)  ensure(chunk.cy, chunk.cx + 1);
+    if ((top & 1) != 0)         ensure(chunk.cy - 1, chunk.cx - 1);
+    if ((top >>> 63) != 0)      ensure(chunk.cy - 1, chunk.cx + 1);
+    if ((bottom & 1) != 0)      ensure(chunk.cy + 1, chunk.cx - 1);
+    if ((bottom >>> 63) != 0)   ensure(chunk.cy + 1, chunk.cx + 1);
+  }
+
+  /**
+   *  Allocate an empty chunk if there is none at a position.
+   *  @param cy - the chunk row
+   *  @param cx - the chunk column
+   *  @return None
+   */
+  private void ensure(int cy, int cx) {
+    if (chunks.get(cy, cx) == null) {
+      Chunk chunk = new Chunk(cy, cx);
+      chunks.put(chunk);
+      working.add(chunk);
+    }
+  }
+
+  /**
+   *  Compute the next states of a chunk into its spare rows, reading the
+   *  edge rows and columns of its eight neighbors.
+   *  @param chunk - the chunk to step
+   *  @return None
+   */
+  private void stepChunk(Chunk chunk) {
+    int cy = chunk.cy, cx = chunk.cx;
+    Chunk n = chunks.get(cy - 1, cx), s = chunks.get(cy + 1, cx);
+    Chunk w = chunks.get(cy, cx - 1), e = chunks.get(cy, cx + 1);
+    Chunk nw = chunks.get(cy - 1, cx - 1), ne = chunks.get(cy - 1, cx + 1);
+    Chunk sw = chunks.get(cy + 1, cx - 1), se = chunks.get(cy + 1, cx + 1);
+    long[] cells = chunk.cells;
+    int last = CHUNK_SIZE - 1;
+    for (int y = 0; y < CHUNK_SIZE; y++) {
+      long an, anWest, anEast;
+      if (y == 0) {
+        an = row(n, last); anWest = row(nw, last); anEast = row(ne, last);
+      } else {
+        an = cells[y - 1]; anWest = row(w, y - 1); anEast = row(e, y - 1);
+      }
+      long bn, bnWest, bnEast;
+      if (y == last) {
+        bn = row(s, 0); bnWest = row(sw, 0); bnEast = row(se, 0);
+      } else {
+        bn = cells[y + 1]; bnWest = row(w, y + 1); bnEast = row(e, y + 1);
+      }
+      long alive = cells[y];
+      chunk.next[y] = BitPackedGameOfLife.nextWord(
+          (an << 1) | (anWest >>> 63), an, (an >>> 1) | (anEast << 63),
+          (alive << 1) | (row(w, y) >>> 63), alive, (alive >>> 1) | (row(e, y) << 63),
+          (bn << 1) | (bnWest >>> 63), bn, (bn >>> 1) | (bnEast << 63));
+    }
+  }
+
+  /**
+   *  This method returns a row of a chunk, or no Cells if it is missing.
+   *  @param chunk - the chunk, possibly null
+   *  @param y - the row within the chunk
+   *  @return the row's Cells as bits
+   */
+  private static long row(Chunk chunk, int y) {
+    return (chunk == null) ? 0 : chunk.cells[y];
+  }
+
+
+// ============================================================================
+
+
+  static class Chunk {
+
+    final int cy, cx;
+    long[] cells = new long[CHUNK_SIZE];
+    long[] next = new long[CHUNK_SIZE];
+
+    /**
+     *  Constructor for an empty chunk.
+     *  @param cy - the chunk row, the Cell row divided by 64
+     *  @param cx - the chunk column, the Cell column divided by 64
+     */
+    Chunk(int cy, int cx) {
+      this.cy = cy;
+      this.cx = cx;
+    }
+
+    /**
+     *  @param None
+     *  @return true if no Cell in the chunk is alive
+     */
+    boolean isEmpty() {
+      for (int y = 0; y < CHUNK_SIZE; y++) {
+        if (cells[y] != 0) return false;
+      }
+      return true;
+    }
+  }
+}
+
+// ============================================================================
+
+class ChunkMap {
+
+  private long[] keys = new long[16];
+  private UnboundedGameOfLife.Chunk[] values = new UnboundedGameOfLife.Chunk[16];
+  private int size;
+
+  /**
+   *  Open addressing hash map from a chunk position packed into a long
+   *  to the chunk, so looking up a neighbor does not box anything.
+   *  @param None
+   */
+  ChunkMap() {
+  }
+
+  /**
+   *  @param None
+   *  @return the number of chunks in the map
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   *  @param None
+   *  @return the number of slots, for walking the map with valueAt
+   */
+  int capacity() {
+    return values.length;
+  }
+
+  /**
+   *  @param i - a slot in the table
+   *  @return the chunk in that slot, or null if it is free
+   */
+  UnboundedGameOfLife.Chunk valueAt(int i) {
+    return values[i];
+  }
+
+  /**
+   *  Find the chunk at a position.
+   *  @param cy - the chunk row
+   *  @param cx - the chunk column
+   *  @return the chunk, or null if none is stored there
+   */
+  UnboundedGameOfLife.Chunk get(int cy, int cx) {
+    long key = key(cy, cx);
+    int mask = values.length - 1;
+    for (int i = slot(key, mask); values[i] != null; i = (i + 1) & mask) {
+      if (keys[i] == key) return values[i];
+    }
+    return null;
+  }
+
+  /**
+   *  Store a chunk under its own position, growing the table when it
+   *  becomes half full.
+   *  @param chunk - the chunk to store
+   *  @return None
+   */
+  void put(UnboundedGameOfLife.Chunk chunk) {
+    if ((size + 1) * 2 > values.length) {
+      long[] oldKeys = keys;
+      UnboundedGameOfLife.Chunk[] oldValues = values;
+      keys = new long[oldKeys.length * 2];
+      values = new UnboundedGameOfLife.Chunk[oldValues.length * 2];
+      size = 0;
+      for (int i = 0; i < oldValues.length; i++) {
+        if (oldValues[i] != null) insert(oldKeys[i], oldValues[i]);
+      }
+    }
+    insert(key(chunk.cy, chunk.cx), chunk);
+  }
+
+  /**
+   *  Remove the chunk at a position, shifting back any later entries of
+   *  the same probe run so lookups never stop at the emptied slot.
+   *  @param cy - the chunk row
+   *  @param cx - the chunk column
+   *  @return None
+   */
+  void remove(int cy, int cx) {
+    long key = key(cy, cx);
+    int mask = values.length - 1;
+    int i = slot(key, mask);
+    while (values[i] != null && keys[i] != key) {
+      i = (i + 1) & mask;
+    }
+    if (values[i] == null) return;
+    values[i] = null;
+    size--;
+    for (int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+      int home = slot(keys[j], mask);
+      boolean movable = (i <= j) ? (home <= i || home > j) : (home <= i && home > j);
+      if (movable) {
+        keys[i] = keys[j];
+        values[i] = values[j];
+        values[j] = null;
+        i = j;
+      }
+    }
+  }
+
+  /**
+   *  Put an entry into the first free slot of its probe run.
+   *  @param key - the packed position
+   *  @param chunk - the chunk to store
+   *  @return None
+   */
+  private void insert(long key, UnboundedGameOfLife.Chunk chunk) {
+    int mask = values.length - 1;
+    int i = slot(key, mask);
+    while (values[i] != null && keys[i] != key) {
+      i = (i + 1) & mask;
+    }
+    if (values[i] == null) size++;
+    keys[i] = key;
+    values[i] = chunk;
+  }
+
+  /**
+   *  @param cy - the chunk row
+   *  @param cx - the chunk column
+   *  @return the position packed into a long
+   */
+  private static long key(int cy, int cx) {
+    return ((long) cy << 32) | (cx & 0xffffffffL);
+  }
+
+  /**
+   *  @param key - the packed position
+   *  @param mask - the table size minus one
+   *  @return the home slot of the key
+   */
+  private static int slot(long key, int mask) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32)) & mask;
+  }
+}
@@ -0,0 +1,61 @@
+/**
+ *  @author Chris Turgeon
+ *  @version 1.0
+ */
+
+package code.driver;
+
+public class VectorGameOfLife extends HaloGameOfLife {
+
+  private static final RowKernel KERNEL = loadKernel();
+
+  /**
+   *  Construct a halo padded grid whose rows are computed with the
+   *  Java Vector API, a full vector of Cells per instruction. When the
+   *  jdk.incubator.vector module is not available it falls back to the
+   *  scalar loop of HaloGameOfLife.
+   *  @param numRows - the number of rows in the grid
+   *  @param numCols - the number of columns in the grid
+   */
+  public VectorGameOfLife(int numRows, int numCols) {
+    super(numRows, numCols);
+  }
+
+  /**
+   *  This method tells whether the vector kernel could be loaded.
+   *  @param None
+   *  @return true if rows are computed with vector instructions
+   */
+  public static boolean isVectorized() {
+    return KERNEL != null;
+  }
+
+  /**
+   *  Compute the next state of the Cells in a band of rows.
+   *  @param firstRow - the first stored row to compute
+   *  @param lastRow - the last stored row to compute
+   *  @return None
+   */
+  protected void computeRows(int firstRow, int lastRow) {
+    if (KERNEL == null) {
+      super.computeRows(firstRow, lastRow);
+    } else {
+      KERNEL.computeRows(cells, nextCells, stride, numCols, firstRow, lastRow);
+    }
+  }
+
+  /**
+   *  Load the vector kernel by name, so this class still compiles and
+   *  runs on a JVM started without --add-modules jdk.incubator.vector.
+   *  @param None
+   *  @return the kernel, or null if the Vector API is not available
+   */
+  private static RowKernel loadKernel() {
+    try {
+      Class<?> kernel = Class.forName("code.simd.VectorKernel");
+      return (RowKernel) kernel.getDeclaredConstructor().newInstance();
+    } catch(Throwable e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,416 @@
+/**
+ *  @author Chris Turgeon
+ *  @version 1.0
+ */
+
+package code.io;
+import code.driver.LifeEngine;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.IndexColorModel;
+import java.awt.image.MultiPixelPackedSampleModel;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.FileImageOutputStream;
+
+public class AnimationExporter implements AutoCloseable {
+
+  // The largest width or height a GIF can hold
+  private static final int MAX_GIF_SIZE = 65535;
+  private static final String GIF_METADATA = "javax_imageio_gif_image_1.0";
+
+  private String output;
+  private boolean gif;
+  private int numRows;
+  private int numCols;
+  private int scale;
+  private int frameStep;
+  private int width;
+  private int height;
+  private IndexColorModel palette;
+
+  // Frames are drawn into one of at most maxInFlight reusable images,
+  // which bounds the memory used however long the run is
+  private int maxInFlight;
+  private Semaphore inFlight;
+  private ConcurrentLinkedQueue<BufferedImage> images = new ConcurrentLinkedQueue<BufferedImage>();
+  private ExecutorService encoders;
+  private AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+  private long[] row;
+  private long[] pixels;
+
+  // The animated GIF being written, all on the one encoding thread
+  private ImageWriter gifWriter;
+  private FileImageOutputStream gifStream;
+  private IIOMetadata firstFrame;
+  private IIOMetadata nextFrame;
+  private boolean started;
+
+  private long startTime;
+  private AtomicLong framesWritten = new AtomicLong();
+
+  /**
+   *  Constructor for an exporter which draws grids as frames of an
+   *  animation, one pixel square of scale x scale a Cell in two colours.
+   *  If output ends in .gif the frames go into one looping animated GIF,
+   *  and if not each frame is written to output + tick + ".png". Frames
+   *  are encoded on background threads, so the caller only waits when
+   *  every image is in use.
+   *  @param output - the GIF to write, or the path and file name each PNG's tick is added to
+   *  @param numRows - the number of rows in the grids
+   *  @param numCols - the number of columns in the grids
+   *  @param scale - the width and height in pixels of a Cell
+   *  @param frameStep - keep only the ticks which are a multiple of this
+   *  @param frameMillis - how long a GIF shows each frame for
+   *  @param alive - the colour of live Cells, dead ones being white
+   *  @exception IllegalArgumentException is thrown if the frames would be too large
+   *  @exception IOException is thrown if the GIF cannot be written
+   */
+  public AnimationExporter(String output, int numRows, int numCols, int scale, int frameStep,
+                           int frameMillis, Color alive) throws IOException {
+    if (scale < 1 || frameStep < 1) {
+      throw new IllegalArgumentException("The scale and the ticks between frames must be at least 1");
+    }
+    this.gif = output.endsWith(".gif");
+    long longWidth = (long) numCols * scale;
+    long longHeight = (long) numRows * scale;
+    if ((gif && (longWidth > MAX_GIF_SIZE || longHeight > MAX_GIF_SIZE))
+        || ((longWidth + 7) >>> 3) * longHeight > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("A " + numRows + "x" + numCols + " grid is too large to export as "
+                                         + (gif ? "a GIF" : "PNG") + " frames");
+    }
+    this.output = output;
+    this.numRows = numRows;
+    this.numCols = numCols;
+    this.scale = scale;
+    this.frameStep = frameStep;
+    this.width = (int) longWidth;
+    this.height = (int) longHeight;
+    this.row = new long[(numCols + 63) >>> 6];
+    this.pixels = new long[(width + 63) >>> 6];
+    byte[] reds = { (byte) 255, (byte) alive.getRed() };
+    byte[] greens = { (byte) 255, (byte) alive.getGreen() };
+    byte[] blues = { (byte) 255, (byte) alive.getBlue() };
+    this.palette = new IndexColorModel(1, 2, reds, greens, blues);
+
+    // A GIF's frames have to be written in order, so only PNGs are
+    // encoded on more than one thread
+    int threads = gif ? 1 : Runtime.getRuntime().availableProcessors();
+    this.maxInFlight = threads + 2;
+    this.inFlight = new Semaphore(maxInFlight);
+    if (gif) {
+      openGif(frameMillis);
+    }
+    this.encoders = Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "animation");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.startTime = System.nanoTime();
+  }
+
+  /**
+   *  @param tick - a tick of the run
+   *  @return true if the tick is kept as a frame
+   */
+  public boolean wantsFrame(int tick) {
+    return tick % frameStep == 0;
+  }
+
+  /**
+   *  Draw the grid of an engine as the frame of a tick, reading it a row
+   *  at a time from the engine's own storage. Ticks which are not kept
+   *  are skipped.
+   *  @param tick - the tick of the grid
+   *  @param game - the engine holding the grid, which may change once this returns
+   *  @return None
+   *  @exception IOException is thrown if an earlier frame failed to write
+   */
+  public void addFrame(int tick, LifeEngine game) throws IOException, InterruptedException {
+    if (!wantsFrame(tick)) {
+      return;
+    }
+    BufferedImage image = takeImage();
+    byte[] data = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+    int stride = ((MultiPixelPackedSampleModel) image.getSampleModel()).getScanlineStride();
+    for (int r = 0; r < numRows; r++) {
+      game.getRow(r, row);
+      drawRow(data, stride, r);
+    }
+    encode(tick, image);
+  }
+
+  /**
+   *  Draw a grid as the frame of a tick. Ticks which are not kept are
+   *  skipped.
+   *  @param tick - the tick of the grid
+   *  @param cells - the Cells 64 to a word, Cell (r, c) at bit r * numCols + c
+   *  @return None
+   *  @exception IOException is thrown if an earlier frame failed to write
+   */
+  public void addFrame(int tick, long[] cells) throws IOException, InterruptedException {
+    if (!wantsFrame(tick)) {
+      return;
+    }
+    BufferedImage image = takeImage();
+    byte[] data = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+    int stride = ((MultiPixelPackedSampleModel) image.getSampleModel()).getScanlineStride();
+    int lastWord = row.length - 1;
+    long lastMask = -1L >>> (-numCols & 63);
+    for (int r = 0; r < numRows; r++) {
+      long start = (long) r * numCols;
+      for (int w = 0; w <= lastWord; w++) {
+        long bit = start + ((long) w << 6);
+        int index = (int) (bit >>> 6);
+        int shift = (int) (bit & 63);
+        long word = cells[index] >>> shift;
+        if (shift != 0 && index + 1 < cells.length) {
+          word |= cells[index + 1] << (64 - shift);
+        }
+        row[w] = word;
+      }
+      row[lastWord] &= lastMask;
+      drawRow(data, stride, r);
+    }
+    encode(tick, image);
+  }
+
+  /**
+   *  Wait for every frame to be written, and end the GIF.
+   *  @param None
+   *  @return None
+   *  @exception IOException is thrown if any frame failed to write
+   */
+  public void finish() throws IOException, InterruptedException {
+    inFlight.acquire(maxInFlight);
+    inFlight.release(maxInFlight);
+    checkError();
+    if (gif && gifStream != null) {
+      if (started) {
+        gifWriter.endWriteSequence();
+      }
+      closeGif();
+    }
+  }
+
+  /**
+   *  Stop the encoding threads, closing the GIF if finish was not
+   *  reached.
+   *  @param None
+   *  @return None
+   */
+  public void close() {
+    encoders.shutdown();
+    if (gif && gifStream != null) {
+      try {
+        encoders.awaitTermination(1, TimeUnit.MINUTES);
+        closeGif();
+      } catch(IOException | InterruptedException e) {
+        e.printStackTrace();
+      }
+    }
+  }
+
+  /**
+   *  @param None
+   *  @return the number of frames written so far
+   */
+  public long getFramesWritten() {
+    return this.framesWritten.get();
+  }
+
+  /**
+   *  @param None
+   *  @return how many frames have been written and how fast since the exporter was made
+   */
+  public String getSummary() {
+    double seconds = Math.max(1e-9, (System.nanoTime() - startTime) / 1e9);
+    return String.format("%d frames of %dx%d, every %d ticks, in %.2f s (%.1f frames/s)",
+                         getFramesWritten(), width, height, frameStep, seconds, getFramesWritten() / seconds);
+  }
+
+  /**
+   *  This method opens the GIF and sets up the metadata of its frames:
+   *  the first one also tells viewers to loop forever.
+   *  @param frameMillis - how long to show each frame for
+   *  @return None
+   */
+  private void openGif(int frameMillis) throws IOException {
+    Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("gif");
+    if (!writers.hasNext()) {
+      throw new IOException("This Java runtime cannot write GIFs");
+    }
+    this.gifWriter = writers.next();
+    RandomAccessFile file = new RandomAccessFile(output, "rw");
+    file.setLength(0);
+    this.gifStream = new FileImageOutputStream(file);
+    gifWriter.setOutput(gifStream);
+
+    ImageTypeSpecifier type = new ImageTypeSpecifier(newImage());
+    String delay = Integer.toString(Math.max(2, Math.round(frameMillis / 10f)));
+    for (int i = 0; i < 2; i++) {
+      IIOMetadata metadata = gifWriter.getDefaultImageMetadata(type, null);
+      IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(GIF_METADATA);
+      IIOMetadataNode control = new IIOMetadataNode("GraphicControlExtension");
+      control.setAttribute("disposalMethod", "none");
+      control.setAttribute("userInputFlag", "FALSE");
+      control.setAttribute("transparentColorFlag", "FALSE");
+      control.setAttribute("delayTime", delay);
+      control.setAttribute("transparentColorIndex", "0");
+      root.appendChild(control);
+      if (i == 0) {
+        IIOMetadataNode loop = new IIOMetadataNode("ApplicationExtension");
+        loop.setAttribute("applicationID", "NETSCAPE");
+        loop.setAttribute("authenticationCode", "2.0");
+        loop.setUserObject(new byte[] { 1, 0, 0 });
+        IIOMetadataNode extensions = new IIOMetadataNode("ApplicationExtensions");
+        extensions.appendChild(loop);
+        root.appendChild(extensions);
+      }
+      metadata.setFromTree(GIF_METADATA, root);
+      if (i == 0) {
+        firstFrame = metadata;
+      } else {
+        nextFrame = metadata;
+      }
+    }
+  }
+
+  /**
+   *  @param None
+   *  @return None
+   */
+  private void closeGif() throws IOException {
+    FileImageOutputStream stream = gifStream;
+    gifStream = null;
+    gifWriter.dispose();
+    stream.close();
+  }
+
+  /**
+   *  @param None
+   *  @return a new two colour image the size of a frame
+   */
+  private BufferedImage newImage() {
+    return new BufferedImage(width, height, BufferedImage.TYPE_BYTE_BINARY, palette);
+  }
+
+  /**
+   *  This method waits for a free image to draw a frame into.
+   *  @param None
+   *  @return the image
+   */
+  private BufferedImage takeImage() throws IOException, InterruptedException {
+    checkError();
+    inFlight.acquire();
+    BufferedImage image = images.poll();
+    return (image == null) ? newImage() : image;
+  }
+
+  /**
+   *  This method draws the row of Cells in row into the image, scale
+   *  rows of pixels tall. The image packs eight pixels to a byte with
+   *  the leftmost in the high bit, the reverse of the Cells.
+   *  @param data - the pixels of the image
+   *  @param stride - the bytes in a row of pixels
+   *  @param r - the row of Cells
+   *  @return None
+   */
+  private void drawRow(byte[] data, int stride, int r) {
+    long[] bits = row;
+    if (scale > 1) {
+      Arrays.fill(pixels, 0L);
+      int alive = PackedRows.nextAlive(row, 0, numCols);
+      while (alive < numCols) {
+        int dead = PackedRows.nextDead(row, alive, numCols);
+        PackedRows.setRun(pixels, alive * scale, (dead - alive) * scale);
+        alive = PackedRows.nextAlive(row, dead, numCols);
+      }
+      bits = pixels;
+    }
+    int at = r * scale * stride;
+    for (int j = 0; j < stride; j += 8) {
+      long reversed = Long.reverse(bits[j >>> 3]);
+      int count = Math.min(8, stride - j);
+      for (int b = 0; b < count; b++) {
+        data[at + j + b] = (byte) (reversed >>> (56 - 8 * b));
+      }
+    }
+    for (int i = 1; i < scale; i++) {
+      System.arraycopy(data, at, data, at + i * stride, stride);
+    }
+  }
+
+  /**
+   *  This method hands a drawn frame to the encoding threads, which
+   *  give the image back once it is written.
+   *  @param tick - the tick of the frame
+   *  @param image - the drawn frame
+   *  @return None
+   */
+  private void encode(int tick, BufferedImage image) {
+    try {
+      encoders.execute(() -> {
+        Throwable failure = null;
+        try {
+          if (error.get() != null) {
+            return;
+          }
+          if (gif) {
+            if (!started) {
+              gifWriter.prepareWriteSequence(null);
+              started = true;
+            }
+            gifWriter.writeToSequence(new IIOImage(image, null, (framesWritten.get() == 0) ? firstFrame : nextFrame), null);
+          } else if (!ImageIO.write(image, "png", new File(output + tick + ".png"))) {
+            throw new IOException("This Java runtime cannot write PNGs");
+          }
+          framesWritten.incrementAndGet();
+        } catch(Throwable e) {
+          failure = e;
+        } finally {
+          if (failure != null) {
+            error.compareAndSet(null, failure);
+          }
+          images.add(image);
+          inFlight.release();
+        }
+      });
+    } catch(RuntimeException e) {
+      images.add(image);
+      inFlight.release();
+      throw e;
+    }
+  }
+
+  /**
+   *  @param None
+   *  @return None
+   *  @exception IOException is thrown if a frame has failed to write
+   */
+  private void checkError() throws IOException {
+    Throwable failure = error.get();
+    if (failure instanceof IOException) {
+      throw (IOException) failure;
+    } else if (failure != null) {
+      throw new IOException(failure);
+    }
+  }
+}
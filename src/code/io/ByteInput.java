@@ -0,0 +1,217 @@
+/**
+ *  @author Chris Turgeon
+ *  @version 1.0
+ */
+
+package code.io;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+class ByteInput implements Closeable {
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private ReadableByteChannel channel;
+  private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+  private byte[] bytes = buffer.array();
+  private int pos;
+  private int limit;
+
+  // Where the buffer and the current line start in the whole input,
+  // kept so errors can say where they happened
+  private long offset;
+  private long line = 1;
+  private long lineStart;
+
+  /**
+   *  Constructor for a buffered reader of bytes which keeps track of
+   *  the line and column it is at.
+   *  @param channel - the input, which is closed when this is closed
+   */
+  ByteInput(ReadableByteChannel channel) {
+    this.channel = channel;
+  }
+
+  /**
+   *  @param file - the file to read
+   *  @return a reader at the start of the file
+   */
+  static ByteInput open(Path file) throws IOException {
+    return new ByteInput(FileChannel.open(file, StandardOpenOption.READ));
+  }
+
+  /**
+   *  @param None
+   *  @return the next byte without consuming it, or -1 at the end of the input
+   */
+  int peek() throws IOException {
+    if (pos == limit && !fill()) {
+      return -1;
+    }
+    return bytes[pos] & 0xff;
+  }
+
+  /**
+   *  @param None
+   *  @return the next byte, or -1 at the end of the input
+   */
+  int next() throws IOException {
+    if (pos == limit && !fill()) {
+      return -1;
+    }
+    int b = bytes[pos++] & 0xff;
+    if (b == '\n') {
+      newLine();
+    }
+    return b;
+  }
+
+  /**
+   *  Make sure the buffer has bytes left, reading the next block of
+   *  input once it is used up. Readers that scan the buffer directly
+   *  call this and then work from getPosition up to getLimit.
+   *  @param None
+   *  @return false at the end of the input
+   */
+  boolean ensureBuffered() throws IOException {
+    return pos < limit || fill();
+  }
+
+  /**
+   *  @param None
+   *  @return the buffer holding the bytes from getPosition up to getLimit
+   */
+  byte[] getBuffer() {
+    return this.bytes;
+  }
+
+  /**
+   *  @param None
+   *  @return the position of the next byte in the buffer
+   */
+  int getPosition() {
+    return this.pos;
+  }
+
+  /**
+   *  @param None
+   *  @return the position after the last byte in the buffer
+   */
+  int getLimit() {
+    return this.limit;
+  }
+
+  /**
+   *  Move past bytes that were scanned in the buffer directly. Any line
+   *  breaks among them must be passed on with newLine.
+   *  @param position - the position of the next byte, at most getLimit
+   *  @return None
+   */
+  void setPosition(int position) {
+    this.pos = position;
+  }
+
+  /**
+   *  Note that the byte before the current position was a line break,
+   *  for readers that scan the buffer directly.
+   *  @param None
+   *  @return None
+   */
+  void newLine() {
+    line++;
+    lineStart = offset + pos;
+  }
+
+  /**
+   *  This method reads the rest of the line, without the line break.
+   *  It is only meant for short lines such as headers.
+   *  @param None
+   *  @return the line, or null at the end of the input
+   */
+  String readLine() throws IOException {
+    if (peek() == -1) {
+      return null;
+    }
+    StringBuilder text = new StringBuilder();
+    int b;
+    while ((b = next()) != -1 && b != '\n') {
+      if (b != '\r') {
+        text.append((char) b);
+      }
+    }
+    return text.toString();
+  }
+
+  /**
+   *  @param None
+   *  @return the line of the next byte, counting from 1
+   */
+  long getLine() {
+    return this.line;
+  }
+
+  /**
+   *  @param message - what was wrong
+   *  @return an error at the next byte
+   */
+  GridFormatException error(String message) {
+    return new GridFormatException(line, offset + pos - lineStart + 1, message);
+  }
+
+  /**
+   *  @param message - what was wrong
+   *  @return an error at the byte just read
+   */
+  GridFormatException errorBefore(String message) {
+    return new GridFormatException(line, Math.max(1, offset + pos - lineStart), message);
+  }
+
+  /**
+   *  Close the input.
+   *  @param None
+   *  @return None
+   */
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  /**
+   *  This method reads the next block of input once the buffer is used up.
+   *  @param None
+   *  @return false if there is no more input
+   */
+  private boolean fill() throws IOException {
+    offset += limit;
+    pos = 0;
+    limit = 0;
+    buffer.clear();
+    int n;
+    do {
+      n = channel.read(buffer);
+    } while (n == 0);
+    if (n < 0) {
+      return false;
+    }
+    limit = n;
+    return true;
+  }
+
+  /**
+   *  @param b - a byte of the input, or -1 for the end of the input
+   *  @return the byte written out for an error message
+   */
+  static String describe(int b) {
+    if (b == -1) {
+      return "the end of the file";
+    } else if (b > ' ' && b < 127) {
+      return "'" + (char) b + "'";
+    } else {
+      return String.format("byte 0x%02X", b & 0xff);
+    }
+  }
+}
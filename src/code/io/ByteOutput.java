@@ -0,0 +1,91 @@
+/**
+ *  @author Chris Turgeon
+ *  @version 1.0
+ */
+
+package code.io;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+class ByteOutput implements Closeable {
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private FileChannel channel;
+  private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+  private byte[] bytes = buffer.array();
+  private int pos;
+
+  /**
+   *  Constructor for a buffered writer of bytes to a file, replacing
+   *  the file if it exists.
+   *  @param file - the file to write
+   */
+  ByteOutput(Path file) throws IOException {
+    this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                    StandardOpenOption.TRUNCATE_EXISTING);
+  }
+
+  /**
+   *  @param b - the byte to write
+   *  @return None
+   */
+  void put(int b) throws IOException {
+    if (pos == BUFFER_SIZE) {
+      flush();
+    }
+    bytes[pos++] = (byte) b;
+  }
+
+  /**
+   *  @param n - a number of 0 or more to write out in decimal
+   *  @return None
+   */
+  void putNumber(int n) throws IOException {
+    if (n >= 10) {
+      putNumber(n / 10);
+    }
+    put('0' + n % 10);
+  }
+
+  /**
+   *  @param text - ASCII text to write
+   *  @return None
+   */
+  void putText(String text) throws IOException {
+    for (int i = 0; i < text.length(); i++) {
+      put(text.charAt(i));
+    }
+  }
+
+  /**
+   *  Write out everything buffered so far.
+   *  @param None
+   *  @return None
+   */
+  void flush() throws IOException {
+    buffer.clear();
+    buffer.limit(pos);
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    pos = 0;
+  }
+
+  /**
+   *  Write out what is left and close the file.
+   *  @param None
+   *  @return None
+   */
+  public void close() throws IOException {
+    try {
+      flush();
+    } finally {
+      channel.close();
+    }
+  }
+}
@@ -0,0 +1,135 @@
+/**
+ *  @author Chris Turgeon
+ *  @version 1.0
+ */
+
+package code.io;
+import code.driver.LifeEngine;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public class CellsFormat {
+
+  /**
+   *  Read a pattern in the plaintext .cells format, such as
+   *  <pre>
+   *  !Name: Glider
+   *  .O
+   *  ..O
+   *  OOO
+   *  </pre>
+   *  into a new engine with a border of dead Cells around it. The file
+   *  is read twice: once to find the size of the pattern, which is not
+   *  written down anywhere, and once to fill the engine a row at a time.
+   *  On hashlife the border is widened to make each side a power of two,
+   *  keeping the pattern in the middle.
+   *  @param file - the file to read
+   *  @param engine - the name of the engine to load it into
+   *  @param margin - the number of dead Cells to put around the pattern
+   *  @return the engine holding the pattern
+   *  @exception GridFormatException is thrown if a Cell is not . or O
+   *  @exception IOException is thrown if the file cannot be read
+   */
+  public static LifeEngine read(Path file, String engine, int margin) throws IOException {
+    int height = 0;
+    int width = 0;
+    try (ByteInput in = ByteInput.open(file)) {
+      int b;
+      while ((b = in.peek()) != -1) {
+        if (b == '!') {
+          skipLine(in);
+          continue;
+        }
+        int length = 0;
+        int cells = 0;
+        while ((b = in.next()) != -1 && b != '\n') {
+          length++;
+          if (b == '.' || b == 'O' || b == '*') {
+            cells = length;
+          } else if (b != ' ' && b != '\t' && b != '\r') {
+            throw in.errorBefore("expected . or O but found " + ByteInput.describe(b));
+          }
+        }
+        width = Math.max(width, cells);
+        height++;
+      }
+    }
+
+    int numRows = LifeEngine.patternSide(engine, height + 2 * margin);
+    int numCols = LifeEngine.patternSide(engine, width + 2 * margin);
+    LifeEngine game = LifeEngine.create(engine, numRows, numCols);
+    int top = (numRows - height) / 2;
+    int left = (numCols - width) / 2;
+    long[] row = new long[(numCols + 63) >>> 6];
+    try (ByteInput in = ByteInput.open(file)) {
+      int r = 0;
+      int b;
+      while ((b = in.peek()) != -1) {
+        if (b == '!') {
+          skipLine(in);
+          continue;
+        }
+        int c = 0;
+        boolean rowHasCells = false;
+        while ((b = in.next()) != -1 && b != '\n') {
+          if (b == 'O' || b == '*') {
+            row[(left + c) >>> 6] |= 1L << (left + c);
+            rowHasCells = true;
+          }
+          c++;
+        }
+        if (rowHasCells) {
+          game.setRow(top + r, row);
+          Arrays.fill(row, 0L);
+        }
+        r++;
+      }
+    }
+    return game;
+  }
+
+  /**
+   *  Write the grid of an engine in the plaintext .cells format. Dead
+   *  Cells at the end of a row are left out.
+   *  @param file - the file to write, replacing it if it exists
+   *  @param game - the engine holding the grid
+   *  @return None
+   *  @exception IOException is thrown if writing fails
+   */
+  public static void write(Path file, LifeEngine game) throws IOException {
+    int numRows = game.getNumRows();
+    int numCols = game.getNumCols();
+    long[] row = new long[(numCols + 63) >>> 6];
+    try (ByteOutput out = new ByteOutput(file)) {
+      out.putText("!Name: " + file.getFileName() + "\n");
+      for (int r = 0; r < numRows; r++) {
+        game.getRow(r, row);
+        int c = 0;
+        int alive = PackedRows.nextAlive(row, 0, numCols);
+        while (alive < numCols) {
+          for (; c < alive; c++) {
+            out.put('.');
+          }
+          int dead = PackedRows.nextDead(row, alive, numCols);
+          for (; c < dead; c++) {
+            out.put('O');
+          }
+          alive = PackedRows.nextAlive(row, dead, numCols);
+        }
+        out.put('\n');
+      }
+    }
+  }
+
+  /**
+   *  @param in - the input, at the start of a line to skip
+   *  @return None
+   */
+  private static void skipLine(ByteInput in) throws IOException {
+    int b;
+    do {
+      b = in.next();
+    } while (b != -1 && b != '\n');
+  }
+}
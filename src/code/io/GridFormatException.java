@@ -0,0 +1,41 @@
+/**
+ *  @author Chris Turgeon
+ *  @version 1.0
+ */
+
+package code.io;
+import java.io.IOException;
+
+public class GridFormatException extends IOException {
+
+  private long line;
+  private long column;
+
+  /**
+   *  Constructor for an error at a place in a grid file.
+   *  @param line - the line of the error, counting from 1
+   *  @param column - the column of the error, counting from 1
+   *  @param message - what was wrong
+   */
+  public GridFormatException(long line, long column, String message) {
+    super("Line " + line + ", column " + column + ": " + message);
+    this.line = line;
+    this.column = column;
+  }
+
+  /**
+   *  @param None
+   *  @return the line of the error, counting from 1
+   */
+  public long getLine() {
+    return this.line;
+  }
+
+  /**
+   *  @param None
+   *  @return the column of the error, counting from 1
+   */
+  public long getColumn() {
+    return this.column;
+  }
+}
@@ -0,0 +1,236 @@
+/**
+ *  @author Chris Turgeon
+ *  @version 1.0
+ */
+
+package code.io;
+import code.driver.LifeEngine;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+public class GridReader implements Closeable {
+
+  // What each byte is to the Cell reader
+  private static final int DEAD = 0;
+  private static final int ALIVE = 1;
+  private static final int SEPARATOR = 2;
+  private static final int LINE_BREAK = 3;
+  private static final int INVALID = 4;
+  private static final byte[] KINDS = new byte[256];
+  static {
+    Arrays.fill(KINDS, (byte) INVALID);
+    KINDS['0'] = DEAD;
+    KINDS['1'] = ALIVE;
+    KINDS[','] = SEPARATOR;
+    KINDS[' '] = SEPARATOR;
+    KINDS['\t'] = SEPARATOR;
+    KINDS['\r'] = SEPARATOR;
+    KINDS['\n'] = LINE_BREAK;
+  }
+
+  private ByteInput in;
+  private int numRows;
+  private int numCols;
+
+  /**
+   *  Constructor for a reader of a grid in the input format: a line
+   *  "rows, cols" followed by rows * cols Cells, each 0 or 1, split up
+   *  by commas and whitespace. The header is read straight away.
+   *  @param channel - the input, which the reader closes when it is closed
+   *  @exception GridFormatException is thrown if the header is malformed
+   *  @exception IOException is thrown if reading fails
+   */
+  public GridReader(ReadableByteChannel channel) throws IOException {
+    this.in = new ByteInput(channel);
+    this.numRows = readNumber("the number of rows");
+    skipSpaces();
+    if (in.peek() == ',') {
+      in.next();
+    }
+    this.numCols = readNumber("the number of columns");
+  }
+
+  /**
+   *  Open a grid file and read its header.
+   *  @param file - the file to read
+   *  @return a reader positioned at the first Cell
+   *  @exception IOException is thrown if the file cannot be read or its
+   *                         header is malformed
+   */
+  public static GridReader open(Path file) throws IOException {
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      return new GridReader(channel);
+    } catch(IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   *  Read a whole grid file into a new engine.
+   *  @param file - the file to read
+   *  @param engine - the name of the engine to load it into
+   *  @return the engine holding the grid
+   *  @exception IOException is thrown if the file cannot be read or is malformed
+   */
+  public static LifeEngine read(Path file, String engine) throws IOException {
+    try (GridReader reader = open(file)) {
+      LifeEngine game = LifeEngine.create(engine, reader.getNumRows(), reader.getNumCols());
+      reader.readCells(game);
+      return game;
+    }
+  }
+
+  /**
+   *  @param None
+   *  @return the number of rows given in the header
+   */
+  public int getNumRows() {
+    return this.numRows;
+  }
+
+  /**
+   *  @param None
+   *  @return the number of columns given in the header
+   */
+  public int getNumCols() {
+    return this.numCols;
+  }
+
+  /**
+   *  Read every Cell into an engine a row at a time, 64 Cells to a
+   *  word, without making a String or a token for any of them. Nothing
+   *  but commas and whitespace may follow the last Cell.
+   *  @param game - an engine with the dimensions of the header
+   *  @return None
+   *  @exception GridFormatException is thrown if a Cell is not 0 or 1, or
+   *                                 there are too few or too many Cells
+   *  @exception IOException is thrown if reading fails
+   */
+  public void readCells(LifeEngine game) throws IOException {
+    if (game.getNumRows() != numRows || game.getNumCols() != numCols) {
+      throw new IllegalArgumentException("Cannot read a " + numRows + "x" + numCols + " grid into a "
+                                         + game.getNumRows() + "x" + game.getNumCols() + " engine");
+    }
+    long[] row = new long[(numCols + 63) >>> 6];
+    int r = 0;
+    int c = 0;
+    boolean afterCell = false;
+
+    // Work through a whole buffer at a time, looking each byte up in
+    // KINDS so a Cell is added to its word without branching on its value
+    while (r < numRows) {
+      if (!in.ensureBuffered()) {
+        throw in.error("the file ended at row " + r + ", column " + c + " of a " + numRows + "x" + numCols + " grid");
+      }
+      byte[] bytes = in.getBuffer();
+      int limit = in.getLimit();
+      int i = in.getPosition();
+      for (; i < limit; i++) {
+        int kind = KINDS[bytes[i] & 0xff];
+        if (kind <= ALIVE) {
+          if (afterCell) {
+            in.setPosition(i);
+            throw in.error("expected a comma or whitespace after a Cell but found "
+                           + ByteInput.describe(bytes[i] & 0xff));
+          }
+          row[c >>> 6] |= (long) kind << c;
+          afterCell = true;
+          if (++c == numCols) {
+            game.setRow(r, row);
+            Arrays.fill(row, 0L);
+            c = 0;
+            if (++r == numRows) {
+              i++;
+              break;
+            }
+          }
+        } else if (kind == SEPARATOR) {
+          afterCell = false;
+        } else if (kind == LINE_BREAK) {
+          afterCell = false;
+          in.setPosition(i + 1);
+          in.newLine();
+        } else {
+          in.setPosition(i);
+          throw in.error("expected 0 or 1 but found " + ByteInput.describe(bytes[i] & 0xff));
+        }
+      }
+      in.setPosition(i);
+    }
+
+    int b;
+    while ((b = in.peek()) != -1) {
+      if (!isSeparator(b)) {
+        throw in.error("expected the end of the file after " + numRows + "x" + numCols + " Cells but found "
+                       + ByteInput.describe(b));
+      }
+      in.next();
+    }
+  }
+
+  /**
+   *  Close the input.
+   *  @param None
+   *  @return None
+   */
+  public void close() throws IOException {
+    in.close();
+  }
+
+  /**
+   *  This method reads a positive number, skipping whitespace in front of it.
+   *  @param what - what the number is, for errors
+   *  @return the number
+   */
+  private int readNumber(String what) throws IOException {
+    int b;
+    while ((b = in.peek()) != -1 && isSeparator(b) && b != ',') {
+      in.next();
+    }
+    if (b < '0' || b > '9') {
+      throw in.error("expected " + what + " but found " + ByteInput.describe(b));
+    }
+    long value = 0;
+    while ((b = in.peek()) >= '0' && b <= '9') {
+      value = value * 10 + (b - '0');
+      if (value > Integer.MAX_VALUE) {
+        throw in.error(what + " is too large");
+      }
+      in.next();
+    }
+    if (b != -1 && !isSeparator(b)) {
+      throw in.error("expected a comma or whitespace after " + what + " but found " + ByteInput.describe(b));
+    }
+    if (value == 0) {
+      throw in.error(what + " must be more than 0");
+    }
+    return (int) value;
+  }
+
+  /**
+   *  This method skips spaces and tabs but not line breaks.
+   *  @param None
+   *  @return None
+   */
+  private void skipSpaces() throws IOException {
+    int b;
+    while ((b = in.peek()) == ' ' || b == '\t') {
+      in.next();
+    }
+  }
+
+  /**
+   *  @param b - a byte of the input
+   *  @return true if the byte is a comma or whitespace
+   */
+  private static boolean isSeparator(int b) {
+    return b == ',' || b == ' ' || b == '\n' || b == '\r' || b == '\t';
+  }
+}
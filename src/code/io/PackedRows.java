@@ -0,0 +1,78 @@
+/**
+ *  @author Chris Turgeon
+ *  @version 1.0
+ */
+
+package code.io;
+
+class PackedRows {
+
+  /**
+   *  Turn on a run of Cells in a row packed 64 Cells to a long.
+   *  @param row - the words of the row
+   *  @param from - the first column of the run
+   *  @param count - the number of Cells in the run
+   *  @return None
+   */
+  static void setRun(long[] row, int from, int count) {
+    if (count <= 0) {
+      return;
+    }
+    int to = from + count;          // exclusive
+    int first = from >>> 6;
+    int last = (to - 1) >>> 6;
+    long firstMask = -1L << from;
+    long lastMask = -1L >>> (-to & 63);
+    if (first == last) {
+      row[first] |= firstMask & lastMask;
+      return;
+    }
+    row[first] |= firstMask;
+    for (int w = first + 1; w < last; w++) {
+      row[w] = -1L;
+    }
+    row[last] |= lastMask;
+  }
+
+  /**
+   *  @param row - the words of the row
+   *  @param from - the column to start looking at
+   *  @param numCols - the number of columns in the row
+   *  @return the first live column at or after from, or numCols if there is none
+   */
+  static int nextAlive(long[] row, int from, int numCols) {
+    if (from >= numCols) {
+      return numCols;
+    }
+    int w = from >>> 6;
+    long word = row[w] & (-1L << from);
+    while (word == 0) {
+      if (++w << 6 >= numCols) {
+        return numCols;
+      }
+      word = row[w];
+    }
+    return Math.min(numCols, (w << 6) + Long.numberOfTrailingZeros(word));
+  }
+
+  /**
+   *  @param row - the words of the row
+   *  @param from - the column to start looking at
+   *  @param numCols - the number of columns in the row
+   *  @return the first dead column at or after from, or numCols if there is none
+   */
+  static int nextDead(long[] row, int from, int numCols) {
+    if (from >= numCols) {
+      return numCols;
+    }
+    int w = from >>> 6;
+    long word = ~row[w] & (-1L << from);
+    while (word == 0) {
+      if (++w << 6 >= numCols) {
+        return numCols;
+      }
+      word = ~row[w];
+    }
+    return Math.min(numCols, (w << 6) + Long.numberOfTrailingZeros(word));
+  }
+}
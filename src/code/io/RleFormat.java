@@ -0,0 +1,241 @@
+/**
+ *  @author Chris Turgeon
+ *  @version 1.0
+ */
+
+package code.io;
+import code.driver.LifeEngine;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public class RleFormat {
+
+  private static final int MAX_LINE_LENGTH = 70;
+
+  /**
+   *  Read a pattern in the run length encoded format, such as
+   *  <pre>
+   *  #N Glider
+   *  x = 3, y = 3, rule = B3/S23
+   *  bob$2bo$3o!
+   *  </pre>
+   *  into a new engine with a border of dead Cells around it. Runs are
+   *  turned into whole words of the row being built, so no Cell is ever
+   *  handled on its own, and only rows with live Cells are handed over.
+   *  On hashlife the border is widened to make each side a power of two,
+   *  keeping the pattern in the middle. Every engine but unbounded stores
+   *  the whole grid, so on those the pattern and its border must come to
+   *  fewer than 2^31 Cells; unbounded only stores chunks with live Cells.
+   *  @param file - the file to read
+   *  @param engine - the name of the engine to load it into
+   *  @param margin - the number of dead Cells to put around the pattern
+   *  @return the engine holding the pattern
+   *  @exception GridFormatException is thrown if the file is malformed or
+   *                                 uses a rule other than B3/S23
+   *  @exception IOException is thrown if the file cannot be read
+   */
+  public static LifeEngine read(Path file, String engine, int margin) throws IOException {
+    try (ByteInput in = ByteInput.open(file)) {
+      // Skip comments, then read "x = cols, y = rows, rule = ..."
+      String header;
+      do {
+        header = in.readLine();
+        if (header == null) {
+          throw in.error("expected a header like \"x = 3, y = 3\" but found the end of the file");
+        }
+        header = header.trim();
+      } while (header.isEmpty() || header.startsWith("#"));
+      int width = -1;
+      int height = -1;
+      for (String field : header.split(",")) {
+        String[] pair = field.split("=");
+        String key = pair[0].trim();
+        String value = (pair.length == 2) ? pair[1].trim() : "";
+        if (key.equals("x")) {
+          width = parseSize(in, value, "x");
+        } else if (key.equals("y")) {
+          height = parseSize(in, value, "y");
+        } else if (key.equals("rule")) {
+          if (!isConway(value)) {
+            throw new GridFormatException(in.getLine() - 1, 1, "the rule " + value + " is not supported, only B3/S23");
+          }
+        } else {
+          throw new GridFormatException(in.getLine() - 1, 1, "expected a header like \"x = 3, y = 3\" but found \"" + header + "\"");
+        }
+      }
+      if (width < 0 || height < 0) {
+        throw new GridFormatException(in.getLine() - 1, 1, "the header needs both x and y");
+      }
+
+      int numRows = LifeEngine.patternSide(engine, height + 2 * margin);
+      int numCols = LifeEngine.patternSide(engine, width + 2 * margin);
+      if (!engine.equals("unbounded") && (long) numRows * numCols > Integer.MAX_VALUE) {
+        throw new GridFormatException(in.getLine() - 1, 1, "the pattern needs a " + numRows + "x" + numCols
+                                      + " grid, which is too large for the " + engine + " engine; use unbounded");
+      }
+      LifeEngine game = LifeEngine.create(engine, numRows, numCols);
+      int top = (numRows - height) / 2;
+      int left = (numCols - width) / 2;
+      long[] row = new long[(numCols + 63) >>> 6];
+      int r = 0;
+      int c = 0;
+      int count = 0;
+      boolean rowHasCells = false;
+      while (true) {
+        int b = in.next();
+        if (b >= '0' && b <= '9') {
+          if (count > (Integer.MAX_VALUE - 9) / 10) {
+            throw in.errorBefore("the run length is too large");
+          }
+          count = count * 10 + (b - '0');
+          continue;
+        }
+        int run = (count == 0) ? 1 : count;
+        if (b == 'b' || b == '.' || b == 'o' || (b >= 'A' && b <= 'X')) {
+          if (r >= height) {
+            throw in.errorBefore("the pattern has more than y = " + height + " rows");
+          }
+          if (run > width - c) {
+            throw in.errorBefore("row " + r + " is longer than x = " + width);
+          }
+          if (b != 'b' && b != '.') {
+            PackedRows.setRun(row, left + c, run);
+            rowHasCells = true;
+          }
+          c += run;
+        } else if (b == '$' || b == '!' || b == -1) {
+          if (rowHasCells) {
+            game.setRow(top + r, row);
+            Arrays.fill(row, 0L);
+            rowHasCells = false;
+          }
+          if (b != '$') {
+            return game;
+          }
+          // The rows skipped over are already dead in the new engine
+          r += run;
+          c = 0;
+        } else if (b == ' ' || b == '\t' || b == '\r' || b == '\n') {
+          continue;
+        } else {
+          throw in.errorBefore("expected b, o, $ or ! but found " + ByteInput.describe(b));
+        }
+        count = 0;
+      }
+    }
+  }
+
+  /**
+   *  Write the grid of an engine in the run length encoded format, a
+   *  row at a time. Runs are found a word at a time, dead Cells at the
+   *  end of a row are left out and empty rows are joined into one run.
+   *  @param file - the file to write, replacing it if it exists
+   *  @param game - the engine holding the grid
+   *  @return None
+   *  @exception IOException is thrown if writing fails
+   */
+  public static void write(Path file, LifeEngine game) throws IOException {
+    int numRows = game.getNumRows();
+    int numCols = game.getNumCols();
+    long[] row = new long[(numCols + 63) >>> 6];
+    try (ByteOutput out = new ByteOutput(file)) {
+      out.putText("x = " + numCols + ", y = " + numRows + ", rule = B3/S23\n");
+      RunWriter runs = new RunWriter(out);
+      int rowEnds = 0;
+      for (int r = 0; r < numRows; r++) {
+        game.getRow(r, row);
+        int c = PackedRows.nextAlive(row, 0, numCols);
+        if (c == numCols) {
+          rowEnds++;
+          continue;
+        }
+        if (r > 0) {
+          runs.put(rowEnds, '$');
+        }
+        rowEnds = 1;
+        if (c > 0) {
+          runs.put(c, 'b');
+        }
+        while (c < numCols) {
+          int end = PackedRows.nextDead(row, c, numCols);
+          runs.put(end - c, 'o');
+          c = PackedRows.nextAlive(row, end, numCols);
+          if (c < numCols) {
+            runs.put(c - end, 'b');
+          }
+        }
+      }
+      runs.put(1, '!');
+      out.put('\n');
+    }
+  }
+
+  /**
+   *  @param in - the input, for errors
+   *  @param value - the text of the size
+   *  @param name - x or y
+   *  @return the size
+   */
+  private static int parseSize(ByteInput in, String value, String name) throws GridFormatException {
+    try {
+      int size = Integer.parseInt(value);
+      if (size >= 0) {
+        return size;
+      }
+    } catch(NumberFormatException e) {
+      // Reported below
+    }
+    throw new GridFormatException(in.getLine() - 1, 1, name + " must be a number of 0 or more, not \"" + value + "\"");
+  }
+
+  /**
+   *  @param rule - a rule from a header, in B/S or S/B notation
+   *  @return true if it is Conway's rule, B3/S23
+   */
+  static boolean isConway(String rule) {
+    String r = rule.toUpperCase().replace(" ", "");
+    return r.equals("B3/S23") || r.equals("B3/S32") || r.equals("23/3") || r.equals("32/3") || r.equals("S23/B3");
+  }
+
+
+// ============================================================================
+
+
+  static class RunWriter {
+
+    private ByteOutput out;
+    private int lineLength;
+
+    /**
+     *  Constructor for a writer of runs which keeps lines short.
+     *  @param out - where to write the runs
+     */
+    RunWriter(ByteOutput out) {
+      this.out = out;
+    }
+
+    /**
+     *  Write a run, leaving out a count of 1, starting a new line first
+     *  if the run would not fit on this one.
+     *  @param count - the length of the run
+     *  @param tag - b, o, $ or !
+     *  @return None
+     */
+    void put(int count, char tag) throws IOException {
+      int length = 1;
+      if (count > 1) {
+        length += (int) Math.log10(count) + 1;
+      }
+      if (lineLength + length > MAX_LINE_LENGTH) {
+        out.put('\n');
+        lineLength = 0;
+      }
+      if (count > 1) {
+        out.putNumber(count);
+      }
+      out.put(tag);
+      lineLength += length;
+    }
+  }
+}
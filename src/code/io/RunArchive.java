@@ -0,0 +1,382 @@
+/**
+ *  @author Chris Turgeon
+ *  @version 1.0
+ */
+
+package code.io;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+public class RunArchive implements Closeable {
+
+  // The layout of a run archive:
+  //   a 32 byte header,
+  //   one record a tick: a type byte, an int length and that many bytes,
+  //     either a keyframe of every Cell 64 to a little endian long, or
+  //     a delta of the Cells which flipped written as variable length
+  //     gaps between their indices,
+  //   the index: a long for every tick, its record's offset << 1 with
+  //     the low bit set for keyframes,
+  //   and the footer: an int tick count, the long offset of the index
+  //     and the magic number again.
+  static final byte[] MAGIC = { 'L', 'R', 'U', 'N' };
+  static final byte[] INDEX_MAGIC = { 'L', 'I', 'D', 'X' };
+  public static final int VERSION = 1;
+  static final int HEADER_SIZE = 32;
+  static final int VERSION_AT = 4;
+  static final int HEADER_SIZE_AT = 6;
+  static final int ROWS_AT = 8;
+  static final int COLS_AT = 12;
+  static final int INTERVAL_AT = 16;
+  static final int BIRTH_AT = 20;
+  static final int SURVIVAL_AT = 22;
+  static final int RECORD_HEADER_SIZE = 5;
+  static final int FOOTER_SIZE = 16;
+  static final byte KEYFRAME = 0;
+  static final byte DELTA = 1;
+
+  // How much of the file is mapped at once when reading through a map
+  private static final long MAP_SIZE = 1L << 28;
+
+  private FileChannel channel;
+  private int numRows;
+  private int numCols;
+  private int numWords;
+  private long[] index;
+  private int size;
+  private long recordsEnd;
+  private ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+
+  // The part of the file mapped into memory, or null if reads copy
+  // from the file into the buffer instead
+  private MappedByteBuffer window;
+  private long windowStart;
+  private boolean mapped;
+
+  /**
+   *  Constructor for a reader of a run archive.
+   *  @param channel - the open archive file
+   */
+  private RunArchive(FileChannel channel) {
+    this.channel = channel;
+  }
+
+  /**
+   *  Open a run archive and read its index. An archive whose writer
+   *  never closed it has no index, so its records are walked through
+   *  to rebuild one, and any half written record at the end is ignored.
+   *  @param file - the archive to read
+   *  @return the open archive
+   *  @exception IOException is thrown if the file cannot be read or is
+   *                         not a run archive
+   */
+  public static RunArchive open(Path file) throws IOException {
+    return open(file, false);
+  }
+
+  /**
+   *  Open a run archive like open, reading its ticks straight out of
+   *  the file mapped into memory. Only the index is kept on the heap, so
+   *  any tick can be read in the same time however long the run is, and
+   *  ticks near each other are served from the page cache without a
+   *  system call.
+   *  @param file - the archive to read
+   *  @return the open archive
+   *  @exception IOException is thrown if the file cannot be read or is
+   *                         not a run archive
+   */
+  public static RunArchive map(Path file) throws IOException {
+    return open(file, true);
+  }
+
+  /**
+   *  @param file - the archive to read
+   *  @param mapped - if true, read ticks through a map of the file
+   *  @return the open archive
+   */
+  private static RunArchive open(Path file, boolean mapped) throws IOException {
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      RunArchive archive = new RunArchive(channel);
+      archive.readHeader(file);
+      if (!archive.readIndex()) {
+        archive.rebuildIndex();
+      }
+      archive.mapped = mapped;
+      return archive;
+    } catch(IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   *  @param None
+   *  @return the number of rows in every grid
+   */
+  public int getNumRows() {
+    return this.numRows;
+  }
+
+  /**
+   *  @param None
+   *  @return the number of columns in every grid
+   */
+  public int getNumCols() {
+    return this.numCols;
+  }
+
+  /**
+   *  @param None
+   *  @return the number of ticks in the archive
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   *  This method rebuilds a tick from the keyframe at or before it and
+   *  the deltas after that, which sit next to each other in the file
+   *  and so are read in one go.
+   *  @param tick - a tick from 0 to size() - 1
+   *  @return a new array of the Cells 64 to a word, Cell (r, c) at bit r * numCols + c
+   *  @exception IOException is thrown if reading fails
+   */
+  public long[] getCells(int tick) throws IOException {
+    checkTick(tick);
+    int keyframe = tick;
+    while ((index[keyframe] & 1) == 0) {
+      keyframe--;
+    }
+    ByteBuffer records = read(offset(keyframe), end(tick));
+    long[] cells = new long[numWords];
+    records.position(RECORD_HEADER_SIZE);
+    records.asLongBuffer().get(cells);
+    records.position(RECORD_HEADER_SIZE + 8 * numWords);
+    for (int t = keyframe + 1; t <= tick; t++) {
+      records.get();
+      int length = records.getInt();
+      int next = records.position() + length;
+      int count = VarInts.read(records);
+      int cell = 0;
+      for (int i = 0; i < count; i++) {
+        cell += VarInts.read(records);
+        cells[cell >>> 6] ^= (1L << cell);
+      }
+      records.position(next);
+    }
+    return cells;
+  }
+
+  /**
+   *  @param tick - a tick from 0 to size() - 1
+   *  @return a 2D array of ints holding the grid of that tick
+   *  @exception IOException is thrown if reading fails
+   */
+  public int[][] get(int tick) throws IOException {
+    return toGrid(getCells(tick));
+  }
+
+  /**
+   *  @param cells - the Cells of a tick, as getCells returns them
+   *  @return a 2D array of ints holding the grid
+   */
+  public int[][] toGrid(long[] cells) {
+    int[][] grid = new int[numRows][numCols];
+    long cell = 0;
+    for (int r = 0; r < numRows; r++) {
+      for (int c = 0; c < numCols; c++, cell++) {
+        grid[r][c] = (int) (cells[(int) (cell >>> 6)] >>> cell) & 1;
+      }
+    }
+    return grid;
+  }
+
+  /**
+   *  This method reads the Cells that flipped going into a tick.
+   *  @param tick - a tick from 0 to size() - 1
+   *  @return the indices r * numCols + c of the flipped Cells in increasing
+   *          order, or null if the tick is stored as a keyframe
+   *  @exception IOException is thrown if reading fails
+   */
+  public int[] getChanges(int tick) throws IOException {
+    checkTick(tick);
+    if ((index[tick] & 1) != 0) {
+      return null;
+    }
+    ByteBuffer record = read(offset(tick), end(tick));
+    record.position(RECORD_HEADER_SIZE);
+    int[] changes = new int[VarInts.read(record)];
+    int cell = 0;
+    for (int i = 0; i < changes.length; i++) {
+      cell += VarInts.read(record);
+      changes[i] = cell;
+    }
+    return changes;
+  }
+
+  /**
+   *  Close the archive.
+   *  @param None
+   *  @return None
+   */
+  public void close() throws IOException {
+    window = null;
+    channel.close();
+  }
+
+  /**
+   *  This method reads and checks the header.
+   *  @param file - the archive, for errors
+   *  @return None
+   */
+  private void readHeader(Path file) throws IOException {
+    ByteBuffer header = read(0, HEADER_SIZE);
+    for (int i = 0; i < MAGIC.length; i++) {
+      if (header.get(i) != MAGIC[i]) {
+        throw new IOException(file.getFileName() + " is not a run archive");
+      }
+    }
+    int version = header.getShort(VERSION_AT);
+    if (version < 1 || version > VERSION) {
+      throw new IOException(file.getFileName() + " is a version " + version + " run archive, which this version cannot read");
+    }
+    if (header.getShort(BIRTH_AT) != Snapshot.BIRTH || header.getShort(SURVIVAL_AT) != Snapshot.SURVIVAL) {
+      throw new IOException(file.getFileName() + " uses a rule other than B3/S23");
+    }
+    this.numRows = header.getInt(ROWS_AT);
+    this.numCols = header.getInt(COLS_AT);
+    this.recordsEnd = header.getShort(HEADER_SIZE_AT);
+    if (numRows < 1 || numCols < 1 || recordsEnd < HEADER_SIZE) {
+      throw new IOException(file.getFileName() + " is damaged: its header is invalid");
+    }
+    this.numWords = (int) (((long) numRows * numCols + 63) >>> 6);
+  }
+
+  /**
+   *  This method reads the index from the end of the file.
+   *  @param None
+   *  @return false if there is no index
+   */
+  private boolean readIndex() throws IOException {
+    long fileSize = channel.size();
+    if (fileSize < recordsEnd + FOOTER_SIZE) {
+      return false;
+    }
+    ByteBuffer footer = read(fileSize - FOOTER_SIZE, fileSize);
+    for (int i = 0; i < INDEX_MAGIC.length; i++) {
+      if (footer.get(12 + i) != INDEX_MAGIC[i]) {
+        return false;
+      }
+    }
+    int count = footer.getInt(0);
+    long indexAt = footer.getLong(4);
+    if (count < 0 || indexAt < recordsEnd || indexAt + 8L * count != fileSize - FOOTER_SIZE) {
+      return false;
+    }
+    ByteBuffer entries = read(indexAt, indexAt + 8L * count);
+    this.index = new long[count];
+    entries.asLongBuffer().get(index);
+    this.size = count;
+    if (size != 0 && (index[0] & 1) == 0) {
+      return false;
+    }
+    this.recordsEnd = indexAt;
+    return true;
+  }
+
+  /**
+   *  This method walks through the records to rebuild a missing index.
+   *  @param None
+   *  @return None
+   */
+  private void rebuildIndex() throws IOException {
+    long fileSize = channel.size();
+    long position = recordsEnd;
+    index = new long[64];
+    size = 0;
+    while (position + RECORD_HEADER_SIZE <= fileSize) {
+      ByteBuffer header = read(position, position + RECORD_HEADER_SIZE);
+      byte type = header.get(0);
+      long next = position + RECORD_HEADER_SIZE + header.getInt(1);
+      if ((type != KEYFRAME && type != DELTA) || header.getInt(1) < 0 || next > fileSize
+          || (size == 0 && type != KEYFRAME)) {
+        break;
+      }
+      if (size == index.length) {
+        index = Arrays.copyOf(index, size * 2);
+      }
+      index[size++] = (position << 1) | (type == KEYFRAME ? 1 : 0);
+      position = next;
+    }
+    recordsEnd = position;
+  }
+
+  /**
+   *  @param tick - a tick in the archive
+   *  @return where its record starts
+   */
+  private long offset(int tick) {
+    return index[tick] >>> 1;
+  }
+
+  /**
+   *  @param tick - a tick in the archive
+   *  @return where its record ends
+   */
+  private long end(int tick) {
+    return (tick + 1 < size) ? offset(tick + 1) : recordsEnd;
+  }
+
+  /**
+   *  This method reads part of the file into the reusable buffer, or
+   *  hands back a view of it in the mapped window.
+   *  @param from - the first byte to read
+   *  @param to - the byte after the last one to read
+   *  @return the buffer holding the bytes, from position 0
+   */
+  private ByteBuffer read(long from, long to) throws IOException {
+    int length = (int) (to - from);
+    if (mapped) {
+      if (window == null || from < windowStart || to > windowStart + window.capacity()) {
+        long size = Math.min(Math.max(length, MAP_SIZE), channel.size() - from);
+        if (size < length) {
+          throw new IOException("The run archive ends early");
+        }
+        window = channel.map(FileChannel.MapMode.READ_ONLY, from, size);
+        windowStart = from;
+      }
+      return window.slice((int) (from - windowStart), length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+    if (buffer.capacity() < length) {
+      buffer = ByteBuffer.allocate(Math.max(length, 2 * buffer.capacity())).order(ByteOrder.LITTLE_ENDIAN);
+    }
+    buffer.clear();
+    buffer.limit(length);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, from + buffer.position()) < 0) {
+        throw new IOException("The run archive ends early");
+      }
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  /**
+   *  @param tick - the tick being asked for
+   *  @return None
+   *  @exception IndexOutOfBoundsException is thrown if the tick is not stored
+   */
+  private void checkTick(int tick) {
+    if (tick < 0 || tick >= size) {
+      throw new IndexOutOfBoundsException("Tick " + tick + " is not in the archive of " + size + " ticks");
+    }
+  }
+}
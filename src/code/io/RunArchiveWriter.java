@@ -0,0 +1,245 @@
+/**
+ *  @author Chris Turgeon
+ *  @version 1.0
+ */
+
+package code.io;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+public class RunArchiveWriter implements Closeable {
+
+  private static final int BUFFER_SIZE = 1 << 20;
+  public static final int DEFAULT_KEYFRAME_INTERVAL = 64;
+
+  private FileChannel channel;
+  private ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+  private long flushed;
+  private int numWords;
+  private int keyframeInterval;
+
+  // The Cells of the last tick written, kept up to date from the
+  // deltas so a keyframe can be written whenever one is due
+  private long[] current;
+  private int sinceKeyframe;
+  private long[] index = new long[64];
+  private int size;
+  private byte[] scratch = new byte[64];
+
+  /**
+   *  Constructor for a writer of a new run archive, replacing the file if
+   *  it exists. Ticks are added in order starting from tick 0, and the
+   *  index is written when the writer is closed.
+   *  @param file - the archive to write
+   *  @param numRows - the number of rows in every grid
+   *  @param numCols - the number of columns in every grid
+   *  @param keyframeInterval - the most ticks between keyframes
+   *  @exception IOException is thrown if the file cannot be written
+   */
+  public RunArchiveWriter(Path file, int numRows, int numCols, int keyframeInterval) throws IOException {
+    this.numWords = (int) (((long) numRows * numCols + 63) >>> 6);
+    this.keyframeInterval = keyframeInterval;
+    this.current = new long[numWords];
+    this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                    StandardOpenOption.TRUNCATE_EXISTING);
+    out.put(RunArchive.MAGIC);
+    out.putShort(RunArchive.VERSION_AT, (short) RunArchive.VERSION);
+    out.putShort(RunArchive.HEADER_SIZE_AT, (short) RunArchive.HEADER_SIZE);
+    out.putInt(RunArchive.ROWS_AT, numRows);
+    out.putInt(RunArchive.COLS_AT, numCols);
+    out.putInt(RunArchive.INTERVAL_AT, keyframeInterval);
+    out.putShort(RunArchive.BIRTH_AT, (short) Snapshot.BIRTH);
+    out.putShort(RunArchive.SURVIVAL_AT, (short) Snapshot.SURVIVAL);
+    out.position(RunArchive.HEADER_SIZE);
+  }
+
+  /**
+   *  @param None
+   *  @return the number of ticks written so far
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   *  @param None
+   *  @return the number of bytes written so far
+   */
+  public long getBytesWritten() {
+    return flushed + out.position();
+  }
+
+  /**
+   *  Add the next tick from all of its Cells. The Cells which differ
+   *  from the last tick are found a word at a time.
+   *  @param cells - the Cells 64 to a word, Cell (r, c) at bit r * numCols + c
+   *  @return None
+   *  @exception IOException is thrown if writing fails
+   */
+  public void appendCells(long[] cells) throws IOException {
+    if (size == 0 || sinceKeyframe + 1 >= keyframeInterval) {
+      System.arraycopy(cells, 0, current, 0, numWords);
+      writeKeyframe();
+      return;
+    }
+    int count = 0;
+    for (int k = 0; k < numWords; k++) {
+      count += Long.bitCount(current[k] ^ cells[k]);
+    }
+    int[] changes = new int[count];
+    count = 0;
+    for (int k = 0; k < numWords; k++) {
+      long bits = current[k] ^ cells[k];
+      while (bits != 0) {
+        changes[count++] = (k << 6) + Long.numberOfTrailingZeros(bits);
+        bits &= bits - 1;
+      }
+    }
+    System.arraycopy(cells, 0, current, 0, numWords);
+    if (5L * count > 8L * numWords) {
+      writeKeyframe();
+    } else {
+      writeDelta(changes);
+    }
+  }
+
+  /**
+   *  Add the next tick from the Cells which flipped going into it, which
+   *  costs time in proportion to the number of changes except when a
+   *  keyframe is due.
+   *  @param changes - the indices r * numCols + c of the flipped Cells, in any order
+   *  @return None
+   *  @exception IllegalStateException is thrown if there is no tick to change
+   *  @exception IOException is thrown if writing fails
+   */
+  public void appendChanges(int[] changes) throws IOException {
+    if (size == 0) {
+      throw new IllegalStateException("The first tick of a run archive must be added with appendCells");
+    }
+    int[] sorted = changes.clone();
+    Arrays.sort(sorted);
+    for (int cell : sorted) {
+      current[cell >>> 6] ^= (1L << cell);
+    }
+    // A delta can take up to five bytes a change, so a busy tick is
+    // smaller as a keyframe
+    if (sinceKeyframe + 1 >= keyframeInterval || 5L * sorted.length > 8L * numWords) {
+      writeKeyframe();
+    } else {
+      writeDelta(sorted);
+    }
+  }
+
+  /**
+   *  Write the index and footer and close the file. Closing it again
+   *  does nothing.
+   *  @param None
+   *  @return None
+   */
+  public void close() throws IOException {
+    if (!channel.isOpen()) {
+      return;
+    }
+    try {
+      long indexAt = getBytesWritten();
+      for (int t = 0; t < size; t++) {
+        reserve(8);
+        out.putLong(index[t]);
+      }
+      reserve(RunArchive.FOOTER_SIZE);
+      out.putInt(size);
+      out.putLong(indexAt);
+      out.put(RunArchive.INDEX_MAGIC);
+      flush();
+    } finally {
+      channel.close();
+    }
+  }
+
+  /**
+   *  This method writes the current Cells as a keyframe.
+   *  @param None
+   *  @return None
+   */
+  private void writeKeyframe() throws IOException {
+    startRecord(RunArchive.KEYFRAME, 8 * numWords);
+    for (long word : current) {
+      reserve(8);
+      out.putLong(word);
+    }
+    sinceKeyframe = 0;
+  }
+
+  /**
+   *  This method writes a delta, as the count of changes and then the
+   *  gaps between them.
+   *  @param sorted - the indices of the flipped Cells in increasing order
+   *  @return None
+   */
+  private void writeDelta(int[] sorted) throws IOException {
+    if (scratch.length < 5 + 5 * sorted.length) {
+      scratch = new byte[5 + 5 * sorted.length];
+    }
+    int length = VarInts.write(scratch, 0, sorted.length);
+    int previous = 0;
+    for (int cell : sorted) {
+      length = VarInts.write(scratch, length, cell - previous);
+      previous = cell;
+    }
+    startRecord(RunArchive.DELTA, length);
+    for (int i = 0; i < length; ) {
+      reserve(1);
+      int n = Math.min(length - i, out.remaining());
+      out.put(scratch, i, n);
+      i += n;
+    }
+    sinceKeyframe++;
+  }
+
+  /**
+   *  This method notes where the next tick's record starts and writes
+   *  its type and length.
+   *  @param type - KEYFRAME or DELTA
+   *  @param length - the number of bytes that follow
+   *  @return None
+   */
+  private void startRecord(byte type, int length) throws IOException {
+    if (size == index.length) {
+      index = Arrays.copyOf(index, size * 2);
+    }
+    index[size++] = (getBytesWritten() << 1) | (type == RunArchive.KEYFRAME ? 1 : 0);
+    reserve(RunArchive.RECORD_HEADER_SIZE);
+    out.put(type);
+    out.putInt(length);
+  }
+
+  /**
+   *  This method makes room in the buffer, writing it out if needed.
+   *  @param bytes - the number of bytes about to be put
+   *  @return None
+   */
+  private void reserve(int bytes) throws IOException {
+    if (out.remaining() < bytes) {
+      flush();
+    }
+  }
+
+  /**
+   *  This method writes out the buffer.
+   *  @param None
+   *  @return None
+   */
+  private void flush() throws IOException {
+    out.flip();
+    while (out.hasRemaining()) {
+      flushed += channel.write(out);
+    }
+    out.clear();
+  }
+}
@@ -0,0 +1,228 @@
+/**
+ *  @author Chris Turgeon
+ *  @version 1.0
+ */
+
+package code.io;
+import code.driver.LifeEngine;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32C;
+
+public class Snapshot {
+
+  // The layout of the header, which is followed by every row bit packed
+  // into little endian longs, column c in bit (c % 64) of word (c / 64)
+  private static final byte[] MAGIC = { 'L', 'I', 'F', 'E' };
+  public static final int VERSION = 1;
+  private static final int HEADER_SIZE = 32;
+  private static final int VERSION_AT = 4;
+  private static final int HEADER_SIZE_AT = 6;
+  private static final int ROWS_AT = 8;
+  private static final int COLS_AT = 12;
+  private static final int TICK_AT = 16;
+  private static final int BIRTH_AT = 20;
+  private static final int SURVIVAL_AT = 22;
+  private static final int CHECKSUM_AT = 24;
+
+  // The rule as bit masks of neighbour counts, B3/S23 for every engine
+  public static final int BIRTH = 1 << 3;
+  public static final int SURVIVAL = (1 << 2) | (1 << 3);
+
+  // How much of the file is written or mapped at once
+  private static final int CHUNK_SIZE = 1 << 20;
+  private static final long MAP_SIZE = 1L << 28;
+
+  private LifeEngine game;
+  private int tick;
+
+  /**
+   *  Constructor for a loaded snapshot.
+   *  @param game - the engine holding the grid
+   *  @param tick - the tick the grid was saved at
+   */
+  private Snapshot(LifeEngine game, int tick) {
+    this.game = game;
+    this.tick = tick;
+  }
+
+  /**
+   *  @param None
+   *  @return the engine holding the grid
+   */
+  public LifeEngine getGame() {
+    return this.game;
+  }
+
+  /**
+   *  @param None
+   *  @return the tick the grid was saved at
+   */
+  public int getTick() {
+    return this.tick;
+  }
+
+  /**
+   *  Save the grid of an engine, copying it out a row at a time.
+   *  @param file - the file to write, replacing it if it exists
+   *  @param game - the engine holding the grid
+   *  @param tick - the tick of the grid
+   *  @return None
+   *  @exception IOException is thrown if writing fails
+   */
+  public static void save(Path file, LifeEngine game, int tick) throws IOException {
+    save(file, game.getNumRows(), game.getNumCols(), tick, game::getRow);
+  }
+
+  /**
+   *  Save a grid of 1s and 0s.
+   *  @param file - the file to write, replacing it if it exists
+   *  @param grid - the grid to save
+   *  @param tick - the tick of the grid
+   *  @return None
+   *  @exception IOException is thrown if writing fails
+   */
+  public static void save(Path file, int[][] grid, int tick) throws IOException {
+    int numCols = (grid.length == 0) ? 0 : grid[0].length;
+    save(file, grid.length, numCols, tick, (r, row) -> {
+      for (int c = 0; c < numCols; c++) {
+        row[c >>> 6] |= (long) grid[r][c] << c;
+      }
+    });
+  }
+
+  /**
+   *  Load a snapshot into a new engine. The rows are read straight out
+   *  of the mapped file into the engine, and the checksum is checked on
+   *  the way.
+   *  @param file - the file to read
+   *  @param engine - the name of the engine to load it into
+   *  @return the snapshot holding the engine and its tick
+   *  @exception IOException is thrown if the file cannot be read, is not
+   *                         a snapshot, or is damaged
+   */
+  public static Snapshot load(Path file, String engine) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+      while (header.hasRemaining()) {
+        if (channel.read(header) < 0) {
+          break;
+        }
+      }
+      if (header.hasRemaining() || header.get(0) != MAGIC[0] || header.get(1) != MAGIC[1]
+          || header.get(2) != MAGIC[2] || header.get(3) != MAGIC[3]) {
+        throw new IOException(file.getFileName() + " is not a snapshot");
+      }
+      int version = header.getShort(VERSION_AT);
+      if (version < 1 || version > VERSION) {
+        throw new IOException(file.getFileName() + " is a version " + version + " snapshot, which this version cannot read");
+      }
+      int headerSize = header.getShort(HEADER_SIZE_AT);
+      int numRows = header.getInt(ROWS_AT);
+      int numCols = header.getInt(COLS_AT);
+      int tick = header.getInt(TICK_AT);
+      if (header.getShort(BIRTH_AT) != BIRTH || header.getShort(SURVIVAL_AT) != SURVIVAL) {
+        throw new IOException(file.getFileName() + " uses a rule other than B3/S23");
+      }
+      int numWords = (numCols + 63) >>> 6;
+      long rowBytes = 8L * numWords;
+      if (headerSize < HEADER_SIZE || numRows < 1 || numCols < 1 || tick < 0
+          || channel.size() != headerSize + numRows * rowBytes) {
+        throw new IOException(file.getFileName() + " is damaged: its size does not match its header");
+      }
+
+      LifeEngine game = LifeEngine.create(engine, numRows, numCols);
+      CRC32C checksum = new CRC32C();
+      long[] row = new long[numWords];
+      int rowsPerMap = (int) Math.max(1, MAP_SIZE / rowBytes);
+      for (int r = 0; r < numRows; r += rowsPerMap) {
+        int count = Math.min(rowsPerMap, numRows - r);
+        MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, headerSize + r * rowBytes, count * rowBytes);
+        checksum.update(map.duplicate());
+        LongBuffer words = map.order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+        for (int i = 0; i < count; i++) {
+          words.get(row);
+          game.setRow(r + i, row);
+        }
+      }
+      if ((int) checksum.getValue() != header.getInt(CHECKSUM_AT)) {
+        throw new IOException(file.getFileName() + " is damaged: its checksum does not match");
+      }
+      return new Snapshot(game, tick);
+    }
+  }
+
+  /**
+   *  This method writes the rows a chunk at a time after a blank header,
+   *  then goes back and fills in the header with the checksum.
+   *  @param file - the file to write
+   *  @param numRows - the number of rows in the grid
+   *  @param numCols - the number of columns in the grid
+   *  @param tick - the tick of the grid
+   *  @param rows - fills a zeroed word array with a row of the grid
+   *  @return None
+   */
+  private static void save(Path file, int numRows, int numCols, int tick,
+                           BiConsumer<Integer, long[]> rows) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                StandardOpenOption.TRUNCATE_EXISTING)) {
+      int numWords = (numCols + 63) >>> 6;
+      ByteBuffer chunk = ByteBuffer.allocateDirect(Math.max(CHUNK_SIZE, 8 * numWords)).order(ByteOrder.LITTLE_ENDIAN);
+      LongBuffer words = chunk.asLongBuffer();
+      CRC32C checksum = new CRC32C();
+      long[] row = new long[numWords];
+      channel.position(HEADER_SIZE);
+      for (int r = 0; r < numRows; r++) {
+        if (words.remaining() < numWords) {
+          writeChunk(channel, chunk, words, checksum);
+        }
+        Arrays.fill(row, 0L);
+        rows.accept(r, row);
+        words.put(row);
+      }
+      writeChunk(channel, chunk, words, checksum);
+
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+      header.put(MAGIC);
+      header.putShort(VERSION_AT, (short) VERSION);
+      header.putShort(HEADER_SIZE_AT, (short) HEADER_SIZE);
+      header.putInt(ROWS_AT, numRows);
+      header.putInt(COLS_AT, numCols);
+      header.putInt(TICK_AT, tick);
+      header.putShort(BIRTH_AT, (short) BIRTH);
+      header.putShort(SURVIVAL_AT, (short) SURVIVAL);
+      header.putInt(CHECKSUM_AT, (int) checksum.getValue());
+      header.clear();
+      while (header.hasRemaining()) {
+        channel.write(header, header.position());
+      }
+    }
+  }
+
+  /**
+   *  This method writes out the words put in a chunk so far and empties it.
+   *  @param channel - the file being written
+   *  @param chunk - the bytes of the chunk
+   *  @param words - the words of the chunk, positioned after the last word put
+   *  @param checksum - the checksum of everything written so far
+   *  @return None
+   */
+  private static void writeChunk(FileChannel channel, ByteBuffer chunk, LongBuffer words,
+                                 CRC32C checksum) throws IOException {
+    chunk.clear();
+    chunk.limit(8 * words.position());
+    checksum.update(chunk.duplicate());
+    while (chunk.hasRemaining()) {
+      channel.write(chunk);
+    }
+    words.clear();
+  }
+}
@@ -0,0 +1,288 @@
+/**
+ *  @author Chris Turgeon
+ *  @version 1.0
+ */
+
+package code.io;
+import code.driver.LifeEngine;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class TextExporter implements AutoCloseable {
+
+  private int numRows;
+  private int numCols;
+  private int lineLength;
+  private int fileSize;
+  private byte[] template;
+
+  // At most maxInFlight ticks are being encoded or written at once, each
+  // in one of the reusable buffers, which bounds the memory used
+  private int maxInFlight;
+  private Semaphore inFlight;
+  private ConcurrentLinkedQueue<ByteBuffer> buffers = new ConcurrentLinkedQueue<ByteBuffer>();
+  private ExecutorService encoders;
+  private AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+
+  private long startTime;
+  private AtomicLong bytesWritten = new AtomicLong();
+  private AtomicLong ticksWritten = new AtomicLong();
+
+  /**
+   *  Constructor for an exporter which writes grids in the text format of
+   *  LifeEngine.print, one file a tick. Ticks are encoded on a pool of
+   *  threads and written with asynchronous file channels, so the caller
+   *  only waits when every buffer is in use.
+   *  @param numRows - the number of rows in the grids
+   *  @param numCols - the number of columns in the grids
+   *  @param threads - the number of threads to encode with
+   */
+  public TextExporter(int numRows, int numCols, int threads) {
+    this.numRows = numRows;
+    this.numCols = numCols;
+    this.lineLength = 2 * numCols + 4;
+    long size = (long) lineLength * (numRows + 2);
+    if (size > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("A " + numRows + "x" + numCols + " grid is too large to export as text");
+    }
+    this.fileSize = (int) size;
+    this.maxInFlight = threads + 2;
+    this.inFlight = new Semaphore(maxInFlight);
+    this.encoders = Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "export");
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    // Everything but the Cells is the same in every file
+    template = new byte[fileSize];
+    for (int r = 0; r < numRows + 2; r++) {
+      int start = r * lineLength;
+      boolean border = (r == 0 || r == numRows + 1);
+      for (int i = 0; i < lineLength - 1; i++) {
+        template[start + i] = (byte) (border ? '-' : ' ');
+      }
+      template[start + lineLength - 1] = '\n';
+      if (!border) {
+        template[start] = '|';
+        template[start + lineLength - 2] = '|';
+      }
+    }
+    this.startTime = System.nanoTime();
+  }
+
+  /**
+   *  Queue a tick to be written to outputFile + tick + ".txt". It
+   *  waits for a free buffer if maxInFlight ticks are already queued.
+   *  @param tick - the tick of the grid
+   *  @param cells - the Cells 64 to a word, Cell (r, c) at bit r * numCols + c,
+   *                 which must not be changed afterwards
+   *  @param outputFile - the path and file name the tick is added to
+   *  @return None
+   *  @exception IOException is thrown if an earlier tick failed to write
+   */
+  public void export(int tick, long[] cells, String outputFile) throws IOException, InterruptedException {
+    checkError();
+    inFlight.acquire();
+    Path file = Path.of(outputFile + tick + ".txt");
+    try {
+      encoders.execute(() -> {
+        ByteBuffer buffer = buffers.poll();
+        try {
+          if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(fileSize);
+            buffer.put(template);
+          }
+          encode(cells, buffer);
+        } catch(Throwable e) {
+          done(null, buffer, e);
+          return;
+        }
+        write(file, buffer);
+      });
+    } catch(RuntimeException e) {
+      inFlight.release();
+      throw e;
+    }
+  }
+
+  /**
+   *  Wait for every queued tick to be written.
+   *  @param None
+   *  @return None
+   *  @exception IOException is thrown if any tick failed to write
+   */
+  public void finish() throws IOException, InterruptedException {
+    inFlight.acquire(maxInFlight);
+    inFlight.release(maxInFlight);
+    checkError();
+  }
+
+  /**
+   *  Stop the encoding threads. Ticks still being written are finished
+   *  by the file channels.
+   *  @param None
+   *  @return None
+   */
+  public void close() {
+    encoders.shutdown();
+  }
+
+  /**
+   *  @param None
+   *  @return the number of bytes written so far
+   */
+  public long getBytesWritten() {
+    return this.bytesWritten.get();
+  }
+
+  /**
+   *  @param None
+   *  @return the number of ticks written so far
+   */
+  public long getTicksWritten() {
+    return this.ticksWritten.get();
+  }
+
+  /**
+   *  @param None
+   *  @return how much has been written and how fast since the exporter was made
+   */
+  public String getSummary() {
+    double seconds = Math.max(1e-9, (System.nanoTime() - startTime) / 1e9);
+    double megabytes = getBytesWritten() / 1e6;
+    return String.format("%d ticks, %.1f MB in %.2f s (%.1f MB/s, %.1f ticks/s)",
+                         getTicksWritten(), megabytes, seconds, megabytes / seconds, getTicksWritten() / seconds);
+  }
+
+  /**
+   *  Pack the grid of an engine into the layout export takes.
+   *  @param game - the engine holding the grid
+   *  @return the Cells 64 to a word, Cell (r, c) at bit r * numCols + c
+   */
+  public static long[] pack(LifeEngine game) {
+    int numRows = game.getNumRows();
+    int numCols = game.getNumCols();
+    long[] cells = new long[(int) (((long) numRows * numCols + 63) >>> 6)];
+    long[] row = new long[(numCols + 63) >>> 6];
+    for (int r = 0; r < numRows; r++) {
+      game.getRow(r, row);
+      long start = (long) r * numCols;
+      for (int w = 0; w < row.length; w++) {
+        if (row[w] == 0) {
+          continue;
+        }
+        long bit = start + ((long) w << 6);
+        int index = (int) (bit >>> 6);
+        int shift = (int) (bit & 63);
+        cells[index] |= row[w] << shift;
+        if (shift != 0 && index + 1 < cells.length) {
+          cells[index + 1] |= row[w] >>> (64 - shift);
+        }
+      }
+    }
+    return cells;
+  }
+
+  /**
+   *  This method writes the digit of every Cell into a buffer which
+   *  already holds the borders and spaces.
+   *  @param cells - the Cells 64 to a word
+   *  @param buffer - a buffer filled from the template
+   *  @return None
+   */
+  private void encode(long[] cells, ByteBuffer buffer) {
+    long cell = 0;
+    for (int r = 0; r < numRows; r++) {
+      int at = (r + 1) * lineLength + 2;
+      for (int c = 0; c < numCols; c++, cell++, at += 2) {
+        buffer.put(at, (byte) ('0' + ((cells[(int) (cell >>> 6)] >>> cell) & 1)));
+      }
+    }
+  }
+
+  /**
+   *  This method writes an encoded buffer to its file without waiting,
+   *  handing the buffer back once the write is done.
+   *  @param file - the file to write
+   *  @param buffer - the encoded tick
+   *  @return None
+   */
+  private void write(Path file, ByteBuffer buffer) {
+    AsynchronousFileChannel channel;
+    try {
+      channel = AsynchronousFileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                             StandardOpenOption.TRUNCATE_EXISTING);
+    } catch(Throwable e) {
+      done(null, buffer, e);
+      return;
+    }
+    buffer.clear();
+    channel.write(buffer, 0, null, new CompletionHandler<Integer, Void>() {
+      public void completed(Integer written, Void attachment) {
+        if (buffer.hasRemaining()) {
+          channel.write(buffer, buffer.position(), null, this);
+        } else {
+          done(channel, buffer, null);
+        }
+      }
+
+      public void failed(Throwable e, Void attachment) {
+        done(channel, buffer, e);
+      }
+    });
+  }
+
+  /**
+   *  This method closes a finished file and frees its buffer.
+   *  @param channel - the file written, or null if it never opened
+   *  @param buffer - the buffer to hand back
+   *  @param failure - what went wrong, or null
+   *  @return None
+   */
+  private void done(AsynchronousFileChannel channel, ByteBuffer buffer, Throwable failure) {
+    try {
+      if (channel != null) {
+        channel.close();
+      }
+    } catch(IOException e) {
+      if (failure == null) {
+        failure = e;
+      }
+    }
+    if (failure == null) {
+      bytesWritten.addAndGet(fileSize);
+      ticksWritten.incrementAndGet();
+    } else {
+      error.compareAndSet(null, failure);
+    }
+    if (buffer != null) {
+      buffers.add(buffer);
+    }
+    inFlight.release();
+  }
+
+  /**
+   *  @param None
+   *  @return None
+   *  @exception IOException is thrown if a tick has failed to write
+   */
+  private void checkError() throws IOException {
+    Throwable failure = error.get();
+    if (failure instanceof IOException) {
+      throw (IOException) failure;
+    } else if (failure != null) {
+      throw new IOException(failure);
+    }
+  }
+}
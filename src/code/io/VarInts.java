@@ -0,0 +1,44 @@
+/**
+ *  @author Chris Turgeon
+ *  @version 1.0
+ */
+
+package code.io;
+import java.nio.ByteBuffer;
+
+public class VarInts {
+
+  /**
+   *  Write an int seven bits at a time, low bits first. It takes at
+   *  most five bytes.
+   *  @param out - the array to write into
+   *  @param position - where to write
+   *  @param value - a non negative int
+   *  @return the position after the written bytes
+   */
+  public static int write(byte[] out, int position, int value) {
+    while ((value & ~0x7F) != 0) {
+      out[position++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out[position++] = (byte) value;
+    return position;
+  }
+
+  /**
+   *  Read an int written by write.
+   *  @param in - the buffer to read from, moved past the int
+   *  @return the value read
+   */
+  public static int read(ByteBuffer in) {
+    int value = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = in.get();
+      value |= (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return value;
+  }
+}
@@ -0,0 +1,68 @@
+/**
+ *  @author Chris Turgeon
+ *  @version 1.0
+ */
+
+package code.simd;
+import code.driver.RowKernel;
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+public class VectorKernel implements RowKernel {
+
+  private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+  /**
+   *  Constructor for the kernel. Loading this class fails unless the
+   *  JVM was started with --add-modules jdk.incubator.vector.
+   *  @param None
+   */
+  public VectorKernel() {
+  }
+
+  /**
+   *  Compute the next state of the Cells in a band of rows. The eight
+   *  neighbors of a whole vector of Cells are loaded as eight shifted
+   *  vectors and added lane by lane. A Cell lives next tick exactly
+   *  when (neighbors | state) == 3, which covers both birth with 3
+   *  neighbors and survival with 2 or 3. Columns left over at the end
+   *  of a row are done one at a time.
+   *  @param src - the current generation, including its refreshed border
+   *  @param dst - the array to write the next generation into
+   *  @param stride - the length of a stored row, numCols + 2
+   *  @param numCols - the number of columns in the grid
+   *  @param firstRow - the first stored row to compute
+   *  @param lastRow - the last stored row to compute
+   *  @return None
+   */
+  public void computeRows(byte[] src, byte[] dst, int stride, int numCols, int firstRow, int lastRow) {
+    int lanes = SPECIES.length();
+    ByteVector dead = ByteVector.zero(SPECIES);
+    for (int r = firstRow; r <= lastRow; r++) {
+      int above = (r - 1) * stride;
+      int row = r * stride;
+      int below = (r + 1) * stride;
+      int c = 1;
+      for (; c + lanes - 1 <= numCols; c += lanes) {
+        ByteVector numNeighbors = ByteVector.fromArray(SPECIES, src, above + c - 1)
+            .add(ByteVector.fromArray(SPECIES, src, above + c))
+            .add(ByteVector.fromArray(SPECIES, src, above + c + 1))
+            .add(ByteVector.fromArray(SPECIES, src, row + c - 1))
+            .add(ByteVector.fromArray(SPECIES, src, row + c + 1))
+            .add(ByteVector.fromArray(SPECIES, src, below + c - 1))
+            .add(ByteVector.fromArray(SPECIES, src, below + c))
+            .add(ByteVector.fromArray(SPECIES, src, below + c + 1));
+        ByteVector state = ByteVector.fromArray(SPECIES, src, row + c);
+        VectorMask<Byte> lives = numNeighbors.or(state).eq((byte) 3);
+        dead.blend((byte) 1, lives).intoArray(dst, row + c);
+      }
+      for (; c <= numCols; c++) {
+        int numNeighbors = src[above + c - 1] + src[above + c] + src[above + c + 1]
+                         + src[row + c - 1]                    + src[row + c + 1]
+                         + src[below + c - 1] + src[below + c] + src[below + c + 1];
+        dst[row + c] = (byte) (((numNeighbors | src[row + c]) == 3) ? 1 : 0);
+      }
+    }
+  }
+}
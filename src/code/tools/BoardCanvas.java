@@ -0,0 +1,593 @@
+/**
+ *  @author Chris Turgeon
+ *  @version 1.0
+ */
+
+package code.tools;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+public class BoardCanvas extends JComponent {
+
+  private static final int MIN_GRID_LINE_SIZE = 4;
+  private static final double ZOOM_STEP = 1.25;
+  private static final double MAX_SCALE = 64;
+  private static final int MIN_TILE_ALPHA = 48;
+  private static final Color OUTSIDE_COLOR = Color.LIGHT_GRAY;
+
+  // A Cell is drawn dead, in full color or faded, and separately keeps
+  // a transparency that drops by 50 each tick it survives a fade. Its
+  // state is 3 * (number of drops, at most 6) + the way it is drawn.
+  private static final int DEAD = 0;
+  private static final int FULL = 1;
+  private static final int FADED = 2;
+  private static final int[] TRANSPARENCY = { 255, 205, 155, 105, 55, 5, 0 };
+  private static final int NUM_STATES = 3 * TRANSPARENCY.length;
+  private static final int FULLY_FADED = NUM_STATES - 3 + FADED;
+
+  // The next state of a Cell, indexed by (state << 1) | nextAlive
+  private static final byte[] NEXT_FADE = new byte[2 * NUM_STATES];
+  private static final byte[] NEXT_NO_FADE = new byte[2 * NUM_STATES];
+  private static final int[] IS_ALIVE = new int[NUM_STATES];
+  static {
+    for (int drops = 0; drops < TRANSPARENCY.length; drops++) {
+      for (int look = DEAD; look <= FADED; look++) {
+        int state = 3 * drops + look;
+        int faded = 3 * Math.min(drops + 1, TRANSPARENCY.length - 1) + FADED;
+        NEXT_FADE[state << 1] = (byte) (3 * drops + DEAD);
+        NEXT_NO_FADE[state << 1] = (byte) (3 * drops + DEAD);
+        NEXT_FADE[(state << 1) | 1] = (byte) ((look == DEAD) ? 3 * drops + FULL : faded);
+        NEXT_NO_FADE[(state << 1) | 1] = (byte) (3 * drops + FULL);
+        IS_ALIVE[state] = (look == DEAD) ? 0 : 1;
+      }
+    }
+  }
+
+  private int numRows;
+  private int numCols;
+  private BufferedImage image;
+  private int[] pixels;
+  private byte[] states;
+  private int numAlive;
+
+  // Live Cells which are not fully faded yet, so they still have to be
+  // redrawn every tick they survive. Rebuilt from the states when null.
+  private int[] fading;
+  private int[] nextFading;
+  private int numFading;
+
+  // The current color at every alpha and the pixel of every state,
+  // blended onto the white background
+  private int[] palette = new int[256];
+  private int[] stateColors = new int[NUM_STATES];
+
+  // The number of live Cells in every 2^k by 2^k block, for k from 1
+  // up to numLevels, used to draw the board when zoomed out
+  private int numLevels;
+  private int[][] counts;
+  private int[] countCols;
+  private BufferedImage tiles;
+  private int[] tilePixels;
+
+  // The view onto the board: screen pixels per Cell and the Cell at the
+  // top left corner. Until the user zooms or pans it fits the board.
+  private double scale = 1;
+  private double originX;
+  private double originY;
+  private boolean fitToWindow = true;
+
+  /**
+   *  Constructor for a board which draws every Cell as one pixel of
+   *  a single image, scaled to the view when painted. Dragging pans
+   *  the view, the mouse wheel zooms around the pointer and a double
+   *  click fits the whole board again. All the Cells start dead.
+   *  @param numRows - the number of rows in the grid
+   *  @param numCols - the number of columns in the grid
+   *  @param color - the color of live Cells
+   */
+  public BoardCanvas(int numRows, int numCols, Color color) {
+    this.setOpaque(true);
+    this.setColor(color);
+    this.setGrid(new int[numRows][numCols]);
+
+    MouseAdapter viewControl = new MouseAdapter() {
+      private int lastX;
+      private int lastY;
+
+      public void mousePressed(MouseEvent e) {
+        lastX = e.getX();
+        lastY = e.getY();
+      }
+
+      public void mouseDragged(MouseEvent e) {
+        pan(e.getX() - lastX, e.getY() - lastY);
+        lastX = e.getX();
+        lastY = e.getY();
+      }
+
+      public void mouseWheelMoved(MouseWheelEvent e) {
+        zoom(e.getX(), e.getY(), Math.pow(ZOOM_STEP, -e.getPreciseWheelRotation()));
+      }
+
+      public void mouseClicked(MouseEvent e) {
+        if (e.getClickCount() == 2) {
+          resetView();
+        }
+      }
+    };
+    this.addMouseListener(viewControl);
+    this.addMouseMotionListener(viewControl);
+    this.addMouseWheelListener(viewControl);
+  }
+
+  /**
+   *  Replace the whole board with a new grid, drawing each live Cell
+   *  in full color. The image is reallocated if the size changed.
+   *  @param grid - 2D array of integers holding 1s and 0s
+   *  @return the number of live Cells
+   */
+  public int setGrid(int[][] grid) {
+    int rows = grid.length;
+    int cols = (rows == 0) ? 0 : grid[0].length;
+    if (image == null || rows != numRows || cols != numCols) {
+      this.numRows = rows;
+      this.numCols = cols;
+      this.image = new BufferedImage(Math.max(cols, 1), Math.max(rows, 1), BufferedImage.TYPE_INT_RGB);
+      this.pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+      this.states = new byte[rows * cols];
+      this.numLevels = 1;
+      while ((1 << numLevels) < Math.max(rows, cols)) {
+        numLevels++;
+      }
+      this.counts = new int[numLevels + 1][];
+      this.countCols = new int[numLevels + 1];
+      for (int k = 1; k <= numLevels; k++) {
+        countCols[k] = ((cols - 1) >> k) + 1;
+        counts[k] = new int[(((rows - 1) >> k) + 1) * countCols[k]];
+      }
+      this.fitToWindow = true;
+    }
+    int numAlive = 0;
+    for (int r = 0, i = 0; r < numRows; r++) {
+      for (int c = 0; c < numCols; c++, i++) {
+        int state = (grid[r][c] == 1) ? FULL : DEAD;
+        states[i] = (byte) state;
+        pixels[i] = stateColors[state];
+        numAlive += grid[r][c];
+      }
+    }
+    this.numAlive = numAlive;
+    this.fading = null;
+    countBlocks();
+    repaint();
+    return numAlive;
+  }
+
+  /**
+   *  Show the next grid. A Cell that stays alive is dimmed when fading,
+   *  otherwise it is drawn in full color again. Cells that are born are
+   *  drawn in full color and Cells that die are drawn white. Once a
+   *  Cell's transparency is down to 20 it stays drawn at 30.
+   *  @param grid - 2D array of integers holding 1s and 0s
+   *  @param fade - if true, dim the Cells that stay alive
+   *  @return the number of live Cells
+   */
+  public int update(int[][] grid, boolean fade) {
+    byte[] next = fade ? NEXT_FADE : NEXT_NO_FADE;
+    int numAlive = 0;
+    for (int r = 0, i = 0; r < numRows; r++) {
+      int[] row = grid[r];
+      for (int c = 0; c < numCols; c++, i++) {
+        int state = next[(states[i] << 1) | row[c]];
+        states[i] = (byte) state;
+        pixels[i] = stateColors[state];
+        numAlive += row[c];
+      }
+    }
+    this.numAlive = numAlive;
+    this.fading = null;
+    countBlocks();
+    repaint();
+    return numAlive;
+  }
+
+  /**
+   *  Show the next tick from only the Cells that flipped, fading the
+   *  Cells that stay alive. Only the flipped Cells and the live Cells
+   *  which are not fully faded yet are redrawn, and only the rectangle
+   *  around them is repainted.
+   *  @param changes - the indices r * numCols + c of the Cells that flipped
+   *  @return the number of live Cells
+   */
+  public int applyChanges(int[] changes) {
+    if (fading == null) {
+      findFading();
+    }
+    if (nextFading.length < numFading + changes.length) {
+      nextFading = new int[numFading + changes.length];
+    }
+    int numNextFading = 0;
+    int minCell = Integer.MAX_VALUE;
+    int maxCell = -1;
+    int minCol = Integer.MAX_VALUE;
+    int maxCol = -1;
+
+    for (int cell : changes) {
+      int born = (states[cell] % 3 == DEAD) ? 1 : 0;
+      int state = NEXT_FADE[(states[cell] << 1) | born];
+      states[cell] = (byte) state;
+      pixels[cell] = stateColors[state];
+      numAlive += (born == 1) ? 1 : -1;
+      countChange(cell, (born == 1) ? 1 : -1);
+      if (born == 1) {
+        nextFading[numNextFading++] = cell;
+      }
+      int c = cell % numCols;
+      minCell = Math.min(minCell, cell); maxCell = Math.max(maxCell, cell);
+      minCol = Math.min(minCol, c);      maxCol = Math.max(maxCol, c);
+    }
+
+    // Cells which died this tick are dead now and skipped
+    for (int j = 0; j < numFading; j++) {
+      int cell = fading[j];
+      if (states[cell] % 3 == DEAD) {
+        continue;
+      }
+      int state = NEXT_FADE[(states[cell] << 1) | 1];
+      if (state != states[cell]) {
+        states[cell] = (byte) state;
+        pixels[cell] = stateColors[state];
+        int c = cell % numCols;
+        minCell = Math.min(minCell, cell); maxCell = Math.max(maxCell, cell);
+        minCol = Math.min(minCol, c);      maxCol = Math.max(maxCol, c);
+      }
+      if (state != FULLY_FADED) {
+        nextFading[numNextFading++] = cell;
+      }
+    }
+
+    int[] temp = fading;
+    fading = nextFading;
+    nextFading = temp;
+    numFading = numNextFading;
+    if (maxCell >= 0) {
+      repaintCells(minCell / numCols, maxCell / numCols, minCol, maxCol);
+    }
+    return numAlive;
+  }
+
+  /**
+   *  Accessor method for the number of live Cells on the board.
+   *  @param None
+   *  @return the number of live Cells
+   */
+  public int getNumAlive() {
+    return this.numAlive;
+  }
+
+  /**
+   *  This method finds the live Cells which are not fully faded yet.
+   *  @param None
+   *  @return None
+   */
+  private void findFading() {
+    numFading = 0;
+    fading = new int[64];
+    for (int i = 0; i < states.length; i++) {
+      if (states[i] % 3 != DEAD && states[i] != FULLY_FADED) {
+        if (numFading == fading.length) {
+          fading = Arrays.copyOf(fading, numFading * 2);
+        }
+        fading[numFading++] = i;
+      }
+    }
+    nextFading = new int[fading.length];
+  }
+
+  /**
+   *  This method counts the live Cells in every block of every level.
+   *  @param None
+   *  @return None
+   */
+  private void countBlocks() {
+    if (numRows == 0 || numCols == 0) {
+      return;
+    }
+    int[] level = counts[1];
+    Arrays.fill(level, 0);
+    for (int r = 0, i = 0; r < numRows; r++) {
+      int row = (r >> 1) * countCols[1];
+      for (int c = 0; c < numCols; c++, i++) {
+        level[row + (c >> 1)] += IS_ALIVE[states[i]];
+      }
+    }
+    for (int k = 2; k <= numLevels; k++) {
+      int[] below = counts[k - 1];
+      level = counts[k];
+      Arrays.fill(level, 0);
+      int belowCols = countCols[k - 1];
+      for (int r = 0, i = 0; i < below.length; r++) {
+        int row = (r >> 1) * countCols[k];
+        for (int c = 0; c < belowCols; c++, i++) {
+          level[row + (c >> 1)] += below[i];
+        }
+      }
+    }
+  }
+
+  /**
+   *  This method updates the block counts for a Cell that flipped.
+   *  @param cell - the index r * numCols + c of the Cell
+   *  @param delta - 1 if the Cell was born, -1 if it died
+   *  @return None
+   */
+  private void countChange(int cell, int delta) {
+    int r = cell / numCols;
+    int c = cell - r * numCols;
+    for (int k = 1; k <= numLevels; k++) {
+      counts[k][(r >> k) * countCols[k] + (c >> k)] += delta;
+    }
+  }
+
+  /**
+   *  Repaint the part of the component covering a block of Cells,
+   *  including the grid lines around it.
+   *  @param firstRow - the first row of the block
+   *  @param lastRow - the last row of the block
+   *  @param firstCol - the first column of the block
+   *  @param lastCol - the last column of the block
+   *  @return None
+   */
+  private void repaintCells(int firstRow, int lastRow, int firstCol, int lastCol) {
+    fitView();
+    int x0 = (int) Math.floor((firstCol - originX) * scale);
+    int x1 = (int) Math.ceil((lastCol + 1 - originX) * scale);
+    int y0 = (int) Math.floor((firstRow - originY) * scale);
+    int y1 = (int) Math.ceil((lastRow + 1 - originY) * scale);
+    repaint(x0 - 2, y0 - 2, x1 - x0 + 5, y1 - y0 + 5);
+  }
+
+  /**
+   *  Fit the whole board in the component again.
+   *  @param None
+   *  @return None
+   */
+  public void resetView() {
+    this.fitToWindow = true;
+    repaint();
+  }
+
+  /**
+   *  Zoom the view in or out, keeping the Cell under a point still.
+   *  It can zoom out to half the size that fits the board and in to
+   *  64 pixels a Cell.
+   *  @param x - the x location of the point in the component
+   *  @param y - the y location of the point in the component
+   *  @param factor - how much bigger Cells get, below 1 to zoom out
+   *  @return None
+   */
+  public void zoom(int x, int y, double factor) {
+    fitView();
+    double fitScale = getFitScale();
+    double cellX = originX + x / scale;
+    double cellY = originY + y / scale;
+    scale = Math.max(fitScale / 2, Math.min(Math.max(fitScale, MAX_SCALE), scale * factor));
+    originX = cellX - x / scale;
+    originY = cellY - y / scale;
+    fitToWindow = false;
+    repaint();
+  }
+
+  /**
+   *  Move the view by a number of pixels.
+   *  @param dx - how far to drag the board right
+   *  @param dy - how far to drag the board down
+   *  @return None
+   */
+  public void pan(int dx, int dy) {
+    fitView();
+    originX -= dx / scale;
+    originY -= dy / scale;
+    fitToWindow = false;
+    repaint();
+  }
+
+  /**
+   *  @param None
+   *  @return the pixels per Cell which fit the board in the component
+   */
+  private double getFitScale() {
+    double fitScale = Math.min((double) getWidth() / Math.max(numCols, 1), (double) getHeight() / Math.max(numRows, 1));
+    return (fitScale > 0) ? fitScale : 1;
+  }
+
+  /**
+   *  Centre the board and fit it in the component, unless the user
+   *  has zoomed or panned.
+   *  @param None
+   *  @return None
+   */
+  private void fitView() {
+    if (fitToWindow) {
+      scale = getFitScale();
+      originX = (numCols - getWidth() / scale) / 2;
+      originY = (numRows - getHeight() / scale) / 2;
+    }
+  }
+
+  /**
+   *  Change the color of live Cells, drawing them all in full color.
+   *  @param color - the new color of live Cells
+   *  @return None
+   */
+  public void setColor(Color color) {
+    for (int alpha = 0; alpha < 256; alpha++) {
+      int r = (color.getRed() * alpha + 255 * (255 - alpha)) / 255;
+      int g = (color.getGreen() * alpha + 255 * (255 - alpha)) / 255;
+      int b = (color.getBlue() * alpha + 255 * (255 - alpha)) / 255;
+      palette[alpha] = (r << 16) | (g << 8) | b;
+    }
+    for (int state = 0; state < NUM_STATES; state++) {
+      if (state % 3 == FULL) {
+        stateColors[state] = palette[255];
+      } else if (state % 3 == FADED) {
+        stateColors[state] = palette[Math.max(TRANSPARENCY[state / 3], 30)];
+      } else {
+        stateColors[state] = palette[0];
+      }
+    }
+    if (image != null) {
+      for (int i = 0; i < states.length; i++) {
+        int state = (states[i] % 3 == FADED) ? states[i] - FADED + FULL : states[i];
+        states[i] = (byte) state;
+        pixels[i] = stateColors[state];
+      }
+      fading = null;
+      repaint();
+    }
+  }
+
+  /**
+   *  This method resets the transparency of every Cell, so they start
+   *  fading from full color again, and draws live Cells in full color.
+   *  @param None
+   *  @return None
+   */
+  public void resetOpacity() {
+    for (int i = 0; i < states.length; i++) {
+      int state = (states[i] % 3 == DEAD) ? DEAD : FULL;
+      states[i] = (byte) state;
+      pixels[i] = stateColors[state];
+    }
+    fading = null;
+    repaint();
+  }
+
+  /**
+   *  Draw the part of the board in view. Only the Cells under the clip
+   *  are drawn, so the cost depends on the size of the view and not
+   *  on the size of the board.
+   *  @param g - the graphics to draw with
+   *  @return None
+   */
+  protected void paintComponent(Graphics g) {
+    Rectangle clip = g.getClipBounds();
+    if (clip == null) {
+      clip = new Rectangle(0, 0, getWidth(), getHeight());
+    }
+    g.setColor(OUTSIDE_COLOR);
+    g.fillRect(clip.x, clip.y, clip.width, clip.height);
+    if (numRows == 0 || numCols == 0) {
+      return;
+    }
+    fitView();
+    int firstCol = Math.max(0, (int) Math.floor(originX + clip.x / scale));
+    int lastCol = Math.min(numCols, (int) Math.ceil(originX + (clip.x + clip.width) / scale));
+    int firstRow = Math.max(0, (int) Math.floor(originY + clip.y / scale));
+    int lastRow = Math.min(numRows, (int) Math.ceil(originY + (clip.y + clip.height) / scale));
+    if (firstCol >= lastCol || firstRow >= lastRow) {
+      return;
+    }
+    if (scale >= 1) {
+      paintCells(g, firstRow, lastRow, firstCol, lastCol);
+    } else {
+      paintTiles(g, firstRow, lastRow, firstCol, lastCol);
+    }
+  }
+
+  /**
+   *  Draw a range of Cells from the image, with a black line between
+   *  the Cells once they are big enough to see it.
+   *  @param g - the graphics to draw with
+   *  @param firstRow - the first row to draw
+   *  @param lastRow - the row after the last row to draw
+   *  @param firstCol - the first column to draw
+   *  @param lastCol - the column after the last column to draw
+   *  @return None
+   */
+  private void paintCells(Graphics g, int firstRow, int lastRow, int firstCol, int lastCol) {
+    int x0 = screenX(firstCol), x1 = screenX(lastCol);
+    int y0 = screenY(firstRow), y1 = screenY(lastRow);
+    g.drawImage(image, x0, y0, x1, y1, firstCol, firstRow, lastCol, lastRow, null);
+    if (scale < MIN_GRID_LINE_SIZE) {
+      return;
+    }
+    g.setColor(Color.BLACK);
+    for (int c = firstCol; c <= lastCol; c++) {
+      g.drawLine(screenX(c), y0, screenX(c), y1);
+    }
+    for (int r = firstRow; r <= lastRow; r++) {
+      g.drawLine(x0, screenY(r), x1, screenY(r));
+    }
+  }
+
+  /**
+   *  Draw a range of Cells zoomed out, where each pixel covers many
+   *  Cells. The Cells are taken a block at a time from the smallest
+   *  level whose blocks are at least a pixel wide, and each block is
+   *  drawn darker the more live Cells it holds.
+   *  @param g - the graphics to draw with
+   *  @param firstRow - the first row to draw
+   *  @param lastRow - the row after the last row to draw
+   *  @param firstCol - the first column to draw
+   *  @param lastCol - the column after the last column to draw
+   *  @return None
+   */
+  private void paintTiles(Graphics g, int firstRow, int lastRow, int firstCol, int lastCol) {
+    int level = 1;
+    while (level < numLevels && (1 << level) * scale < 1) {
+      level++;
+    }
+    int block = 1 << level;
+    int firstBlockRow = firstRow >> level, lastBlockRow = ((lastRow - 1) >> level) + 1;
+    int firstBlockCol = firstCol >> level, lastBlockCol = ((lastCol - 1) >> level) + 1;
+    int tilesHigh = lastBlockRow - firstBlockRow;
+    int tilesWide = lastBlockCol - firstBlockCol;
+    if (tiles == null || tiles.getWidth() < tilesWide || tiles.getHeight() < tilesHigh) {
+      int width = Math.max(tilesWide, (tiles == null) ? 1 : tiles.getWidth());
+      int height = Math.max(tilesHigh, (tiles == null) ? 1 : tiles.getHeight());
+      tiles = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+      tilePixels = ((DataBufferInt) tiles.getRaster().getDataBuffer()).getData();
+    }
+
+    int[] levelCounts = counts[level];
+    int stride = tiles.getWidth();
+    long area = (long) block * block;
+    for (int tr = 0; tr < tilesHigh; tr++) {
+      int row = (firstBlockRow + tr) * countCols[level] + firstBlockCol;
+      for (int tc = 0; tc < tilesWide; tc++) {
+        int count = levelCounts[row + tc];
+        int alpha = (count == 0) ? 0 : Math.max(MIN_TILE_ALPHA, (int) (count * 255 / area));
+        tilePixels[tr * stride + tc] = palette[alpha];
+      }
+    }
+
+    // Blocks on the last row and column can stick out past the board
+    Graphics clipped = g.create();
+    clipped.clipRect(screenX(0), screenY(0), screenX(numCols) - screenX(0), screenY(numRows) - screenY(0));
+    clipped.drawImage(tiles, screenX(firstBlockCol * block), screenY(firstBlockRow * block),
+                      screenX(lastBlockCol * block), screenY(lastBlockRow * block),
+                      0, 0, tilesWide, tilesHigh, null);
+    clipped.dispose();
+  }
+
+  /**
+   *  @param c - a column of the board
+   *  @return the x location of the left edge of the column
+   */
+  private int screenX(int c) {
+    return (int) Math.round((c - originX) * scale);
+  }
+
+  /**
+   *  @param r - a row of the board
+   *  @return the y location of the top edge of the row
+   */
+  private int screenY(int r) {
+    return (int) Math.round((r - originY) * scale);
+  }
+}
@@ -20,15 +20,18 @@ public class Config extends JPanel {
   private String outputDirec = ".";
   DirectoryChooser direcChooser;
   private HashMap<String, JTextField> labelFieldMap = new HashMap<String, JTextField>();
+  private JComboBox<String> engineSelector;
   private static final String LABEL = "Output File Pattern ";
+  private static final String ENGINE_LABEL = "Engine ";
   private static final int COLS = 8;
 
   /**
    *  Constructor for a configuration panel to take in game
    *  settings that persist between application runs.
-   *  @param None
+   *  @param engines - the names of the engines that can run the game
+   *  @param currentEngine - the name of the engine running the game now
    */
-  public Config() {
+  public Config(String[] engines, String currentEngine) {
     setLayout(new BoxLayout(this, BoxLayout.Y_AXIS));
     String msgPrompt = LABEL;
     JTextField textField = new JTextField(COLS);
@@ -50,6 +53,14 @@ public class Config extends JPanel {
     add(Box.createRigidArea(new Dimension(0, 15)));
     add(fileButton);
     add(Box.createRigidArea(new Dimension(0, 15)));
+
+    this.engineSelector = new JComboBox<String>(engines);
+    this.engineSelector.setSelectedItem(currentEngine);
+    JLabel engineLabel = new JLabel(ENGINE_LABEL);
+    engineLabel.setAlignmentX(CENTER_ALIGNMENT);
+    add(engineLabel);
+    add(engineSelector);
+    add(Box.createRigidArea(new Dimension(0, 15)));
     }
 
   /**
@@ -67,6 +78,15 @@ public class Config extends JPanel {
     }
   }
 
+  /**
+   *  Accessor method for the engine selected by the user
+   *  @param None
+   *  @return the name of the selected engine
+   */
+  public String getEngine() {
+    return (String) this.engineSelector.getSelectedItem();
+  }
+
   /**
    *  Wrapper for accessing output directory
    *  @param None
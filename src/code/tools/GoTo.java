@@ -12,7 +12,7 @@ public class GoTo extends JPanel {
 
   private HashMap<String, JTextField> labelFieldMap = new HashMap<String, JTextField>();
   private static final String message = "What tick do you want to go to?  ";
-  private static final int COLS = 4;
+  private static final int COLS = 8;
 
   /**
    *  Constructor for an input to go to a certain tick.
@@ -22,7 +22,7 @@ public class GoTo extends JPanel {
     JTextField textField = new JTextField(COLS);
     labelFieldMap.put(message, textField);
     add(textField);
-    setBorder(BorderFactory.createTitledBorder("Enter a tick from 0 to 200"));
+    setBorder(BorderFactory.createTitledBorder("Enter a tick of 0 or more"));
   }
 
   /**
@@ -36,7 +36,7 @@ public class GoTo extends JPanel {
       return -2;
     try {
       int returnValue = Integer.valueOf(textField.getText());
-      if (returnValue < 0 || returnValue > 200) {
+      if (returnValue < 0) {
         return -1;
       } else {
         return returnValue;
@@ -13,7 +13,7 @@ public class RangeDialogBox extends JPanel {
 
   private HashMap<String, JTextField> labelFieldMap = new HashMap<String, JTextField>();
   private static final String[] LABEL_TEXTS = { "Starting Tick ", " Ending Tick " };
-  private static final int COLS = 4;
+  private static final int COLS = 8;
 
   /**
    *  Constructor for a dialog box to take in a range of ticks.
@@ -29,7 +29,7 @@ public class RangeDialogBox extends JPanel {
         labelFieldMap.put(msgPrompt, textField);
         add(textField);
      }
-     setBorder(BorderFactory.createTitledBorder("Enter a tick range from 0 to 200"));
+     setBorder(BorderFactory.createTitledBorder("Enter a tick range starting from 0"));
   }
 
   /**
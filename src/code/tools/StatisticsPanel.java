@@ -12,17 +12,19 @@ public class StatisticsPanel extends JPanel {
   private int tick;
   private int numAlive, numDead;
   private int diffNumAlive, diffNumDead;
-  private JPanel currPanel, diffPanel;
+  private JPanel currPanel, diffPanel, ratePanel;
   private JLabel labelAlive, labelDead;
   private JLabel diffAlive, diffDead;
+  private JLabel tickRate, frameRate;
   private JLabel tickLabel;
 
   /**
    *  The constructor for StatisticsPanel takes in the number of
    *  alive and dead cells to start the game. It constructs two
    *  JPanel objects to hold the num alive/dead stats for the
-   *  current tick and the difference between the previous. It also
-   *  creates a JLabel to hold the tick count.
+   *  current tick and the difference between the previous, and a
+   *  third for how fast ticks are run and shown. It also creates a
+   *  JLabel to hold the tick count.
    *  @param numAlive - the number of alive cells
    *  @param numDead - the number of dead cells
    */
@@ -35,8 +37,10 @@ public class StatisticsPanel extends JPanel {
     this.tickLabel = new JLabel();
     this.currPanel = new JPanel();
     this.diffPanel = new JPanel();
+    this.ratePanel = new JPanel();
     currPanel.setLayout(new BoxLayout(currPanel, BoxLayout.Y_AXIS));
     diffPanel.setLayout(new BoxLayout(diffPanel, BoxLayout.Y_AXIS));
+    ratePanel.setLayout(new BoxLayout(ratePanel, BoxLayout.Y_AXIS));
     this.setLayout(new FlowLayout(FlowLayout.CENTER, 20, 7));
 
     this.labelAlive = new JLabel("ALIVE:  0");
@@ -48,6 +52,11 @@ public class StatisticsPanel extends JPanel {
     this.diffDead = new JLabel("DEAD COMPARED TO LAST TICK:  0");
     this.diffPanel.add(diffAlive);
     this.diffPanel.add(diffDead);
+
+    this.tickRate = new JLabel("TICKS/SEC:  0.0");
+    this.frameRate = new JLabel("FRAMES/SEC:  0.0");
+    this.ratePanel.add(tickRate);
+    this.ratePanel.add(frameRate);
     display();
   }
 
@@ -77,6 +86,18 @@ public class StatisticsPanel extends JPanel {
     display();
   }
 
+  /**
+   *  This method shows how many ticks the game ran and how many
+   *  frames were drawn over the last second.
+   *  @param ticksPerSecond - the ticks run per second
+   *  @param framesPerSecond - the frames drawn per second
+   *  @return None
+   */
+  public void updateRates(double ticksPerSecond, double framesPerSecond) {
+    tickRate.setText( String.format("TICKS/SEC:  %.1f", ticksPerSecond) );
+    frameRate.setText( String.format("FRAMES/SEC:  %.1f", framesPerSecond) );
+  }
+
   /**
    *  This method increments or decrements the current tick.
    *  @param increaseTick - a boolean value, if true increment, else decrement
@@ -125,5 +146,6 @@ public class StatisticsPanel extends JPanel {
     this.add(tickLabel);
     this.add(currPanel);
     this.add(diffPanel);
+    this.add(ratePanel);
   }
 }
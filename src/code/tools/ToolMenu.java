@@ -27,7 +27,11 @@ public class ToolMenu extends JMenu {
             "<li>The game will not begin until you load in a text file by clicking <i>Game</i>, " +
             "then <i>Load Game</i>, and finally navigating to a text file to load into the game.</li>"  +
             "<li><i>Save Range</i> will allow you to specify a range of ticks and will save all ticks as separate files within that range.</li>" +
-            "<li><i>Save All</i> will allow you to save all ticks from the first up to the one that you are currently on.</li>" +
+            "<li><i>Save All</i> will allow you to save all ticks from the first up to the one that you are currently on into a single <i>.liferun</i> archive.</li>" +
+            "<li><i>Export Animation</i> saves the ticks up to the current one as an animated <i>.gif</i>, or as one <i>.png</i> a tick if you give that extension, keeping a frame every so many ticks.</li>" +
+            "<li><i>Open Run</i> replays a <i>.liferun</i> archive without simulating it. Drag the slider to jump to any tick.</li>" +
+            "<li><i>Save Snapshot</i> saves the current grid to a small <i>.snap</i> file which <i>Load Game</i> can open.</li>" +
+            "<li><i>Load Game</i> also opens <i>.rle</i> and <i>.cells</i> patterns, and <i>Export Pattern</i> saves the grid as either.</li>" +
             "<li><i>Configuration</i> will allow you to set the directory for output and the output file pattern.</li>" +
             "<li><i>Go To</i> will allow you to jump to a tick, note that transparency resets</li>" +
             "<li>When \"Back\" is selected the transparency of cells is reset.</li>" +
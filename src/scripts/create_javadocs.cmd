@@ -1,2 +1,2 @@
 cd ../
-javadoc -d ./docs ./code/driver/*.java ./code/tools/*.java
+javadoc -d ./docs ./code/driver/*.java ./code/tools/*.java ./code/io/*.java
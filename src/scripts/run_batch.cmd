@@ -0,0 +1,5 @@
+cd ../
+javac code/driver/*.java
+javac code/io/*.java
+javac --add-modules jdk.incubator.vector code/simd/*.java
+java --add-modules jdk.incubator.vector -Djava.awt.headless=true code.driver.BatchRunner %*
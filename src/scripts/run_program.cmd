@@ -1,4 +1,6 @@
 cd ../
 javac code/tools/*.java
 javac code/driver/*.java
+javac code/io/*.java
+javac --add-modules jdk.incubator.vector code/simd/*.java
 java code.driver.GUI